@@ -0,0 +1,100 @@
+package dat.benchmarks;
+
+import dat.daos.impl.AvailabilityDAO;
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.AppointmentDTO;
+import dat.dtos.DoctorDTO;
+import dat.dtos.SlotDTO;
+import dat.entities.Appointment;
+import dat.entities.Doctor;
+import dat.enums.Speciality;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Availability queries once the bitmaps are loaded, with every doctor booked for about half of the window
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class AvailabilityBenchmark {
+    private static final LocalDate FROM = LocalDate.now().plusDays(1);
+    private static final LocalDate TO = FROM.plusDays(13);
+
+    @Param({"1000"})
+    public int doctors;
+
+    private EntityManagerFactory emf;
+    private DoctorDAO doctorDAO;
+    private AvailabilityDAO dao;
+    private List<DoctorDTO> created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkData.entityManagerFactory();
+        doctorDAO = DoctorDAO.getInstance(emf);
+        dao = AvailabilityDAO.getInstance(emf);
+        created = doctorDAO.createAll(BenchmarkData.doctorDTOs(doctors));
+
+        Random random = new Random(42);
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            int count = 0;
+            for (DoctorDTO doctor : created) {
+                Doctor reference = em.getReference(Doctor.class, doctor.getId());
+                // Distinct slots, a doctor can't be booked twice at the same time
+                List<Integer> slots = new ArrayList<>(IntStream.range(0, 14 * AvailabilityDAO.UNITS_PER_DAY).boxed().toList());
+                Collections.shuffle(slots, random);
+                for (int i = 0; i < 160; i++) {
+                    int slot = slots.get(i);
+                    LocalTime time = AvailabilityDAO.OPENING.plusMinutes(15L * (slot % AvailabilityDAO.UNITS_PER_DAY));
+                    Appointment appointment = new Appointment(new AppointmentDTO(null, null, "Client", FROM.plusDays(slot / AvailabilityDAO.UNITS_PER_DAY), time, null));
+                    appointment.setDoctor(reference);
+                    em.persist(appointment);
+                    if (++count % 1000 == 0) {
+                        em.flush();
+                        em.clear();
+                        reference = em.getReference(Doctor.class, doctor.getId());
+                    }
+                }
+            }
+            em.getTransaction().commit();
+        }
+        doctorDAO.evictAll();
+        // Load every doctor's bitmaps before measuring
+        for (Speciality speciality : Speciality.values()) {
+            dao.firstFreeSlot(speciality, FROM, TO, 15);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        doctorDAO.deleteAll(created.stream().map(DoctorDTO::getId).toList());
+        emf.close();
+    }
+
+    @Benchmark
+    public List<SlotDTO> freeSlotsTwoWeeks() {
+        Integer id = created.get(ThreadLocalRandom.current().nextInt(created.size())).getId();
+        return dao.freeSlots(id, FROM, TO, 30, 1000);
+    }
+
+    @Benchmark
+    public SlotDTO firstFreeHourBySpeciality() {
+        return dao.firstFreeSlot(Speciality.SURGERY, FROM, TO, 60);
+    }
+}
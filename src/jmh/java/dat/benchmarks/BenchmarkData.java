@@ -0,0 +1,64 @@
+package dat.benchmarks;
+
+import dat.config.HibernateConfig;
+import dat.dtos.DoctorDTO;
+import dat.entities.Appointment;
+import dat.entities.Doctor;
+import dat.enums.Speciality;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test data and database access shared by the benchmarks
+ */
+final class BenchmarkData {
+    private static final Speciality[] SPECIALITIES = Speciality.values();
+
+    private BenchmarkData() {
+    }
+
+    static DoctorDTO doctorDTO(int i) {
+        return new DoctorDTO(null, "Dr. Bench " + i, LocalDate.of(1950, 1, 1).plusDays(i % 20000), 1975 + i % 45,
+            "Bench Clinic " + i % 100, SPECIALITIES[i % SPECIALITIES.length]);
+    }
+
+    static List<DoctorDTO> doctorDTOs(int count) {
+        List<DoctorDTO> doctors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            doctors.add(doctorDTO(i));
+        }
+        return doctors;
+    }
+
+    /**
+     * A detached doctor with the given number of appointments, ids set as if loaded from the database
+     */
+    static Doctor doctor(int id, int appointments) {
+        DoctorDTO dto = doctorDTO(id);
+        dto.setId(id);
+        Doctor doctor = new Doctor(dto);
+        for (int i = 0; i < appointments; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setId(i + 1);
+            appointment.setClientName("Client " + i);
+            appointment.setDate(LocalDate.of(2030, 1, 1).plusDays(i / 8));
+            appointment.setTime(LocalTime.of(9 + i % 8, 0));
+            appointment.setComment("Checkup");
+            doctor.addAppointment(appointment);
+        }
+        return doctor;
+    }
+
+    /**
+     * The Testcontainers database used by the tests, or the local development database
+     * from config.properties when BENCH_DB=local
+     */
+    static EntityManagerFactory entityManagerFactory() {
+        HibernateConfig.setTest(!"local".equalsIgnoreCase(System.getenv("BENCH_DB")));
+        return HibernateConfig.getEntityManagerFactory();
+    }
+}
@@ -0,0 +1,82 @@
+package dat.benchmarks;
+
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.DoctorDTO;
+import dat.entities.Doctor;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DoctorDAO reads against a real PostgreSQL database, see BenchmarkData.entityManagerFactory()
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class DoctorDAOBenchmark {
+
+    @Param({"1000"})
+    public int doctors;
+
+    private EntityManagerFactory emf;
+    private DoctorDAO dao;
+    private List<DoctorDTO> created;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkData.entityManagerFactory();
+        dao = DoctorDAO.getInstance(emf);
+        created = dao.createAll(BenchmarkData.doctorDTOs(doctors));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dao.deleteAll(created.stream().map(DoctorDTO::getId).toList());
+        emf.close();
+    }
+
+    private Integer randomId() {
+        return created.get(ThreadLocalRandom.current().nextInt(created.size())).getId();
+    }
+
+    @Benchmark
+    public DoctorDTO readCached() {
+        return dao.read(randomId());
+    }
+
+    // Includes the cost of clearing the DTO caches and the Hibernate second-level cache
+    @Benchmark
+    public DoctorDTO readUncached() {
+        dao.evictAll();
+        emf.getCache().evict(Doctor.class);
+        return dao.read(randomId());
+    }
+
+    @Benchmark
+    public List<DoctorDTO> readPage() {
+        return dao.readAll(0, 50);
+    }
+
+    @Benchmark
+    public List<DoctorDTO> readPageWithAppointments() {
+        return dao.readAll(0, 50, true);
+    }
+
+    @Benchmark
+    public List<DoctorDTO> byBirthdateRange() {
+        return dao.doctorByBirthdateRange(LocalDate.of(1950, 1, 1), LocalDate.of(1951, 12, 31));
+    }
+
+    @Benchmark
+    public void streamAll(Blackhole blackhole) {
+        dao.streamAll(blackhole::consume);
+    }
+}
@@ -0,0 +1,60 @@
+package dat.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dat.dtos.DoctorDTO;
+import dat.entities.Doctor;
+import dat.utils.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping and JSON serialization of a single doctor with a growing number of appointments,
+ * and of a page of doctor summaries
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DoctorMappingBenchmark {
+
+    @Param({"0", "10", "1000"})
+    public int appointments;
+
+    private Doctor doctor;
+    private DoctorDTO doctorDTO;
+    private List<DoctorDTO> page;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        doctor = BenchmarkData.doctor(1, appointments);
+        doctorDTO = new DoctorDTO(doctor);
+        page = BenchmarkData.doctorDTOs(50);
+        objectMapper = Utils.getObjectMapper();
+    }
+
+    @Benchmark
+    public DoctorDTO mapDoctor() {
+        return new DoctorDTO(doctor);
+    }
+
+    @Benchmark
+    public byte[] serializeDoctor() throws Exception {
+        return objectMapper.writeValueAsBytes(doctorDTO);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeDoctor() throws Exception {
+        return objectMapper.writeValueAsBytes(new DoctorDTO(doctor));
+    }
+
+    // Independent of the appointment count, measured once per parameter value for comparison
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,75 @@
+package dat.benchmarks;
+
+import dat.daos.impl.DoctorMockDAO;
+import dat.dtos.DoctorDTO;
+import dat.enums.Speciality;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Lookups in the in-memory DoctorMockDAO as the number of doctors grows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DoctorMockDAOBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int doctors;
+
+    private DoctorMockDAO dao;
+    private List<DoctorDTO> snapshot;
+
+    @Setup
+    public void setUp() {
+        // The mock keeps its doctors in static state, each fork starts with the seven seeded doctors
+        dao = new DoctorMockDAO();
+        for (DoctorDTO doctor : BenchmarkData.doctorDTOs(doctors)) {
+            dao.create(doctor);
+        }
+        snapshot = dao.readAll();
+    }
+
+    @Benchmark
+    public DoctorDTO readById() {
+        return dao.read(ThreadLocalRandom.current().nextInt(1, doctors) + 1);
+    }
+
+    @Benchmark
+    public List<DoctorDTO> readPage() {
+        return dao.readAll(ThreadLocalRandom.current().nextInt(doctors), 50);
+    }
+
+    @Benchmark
+    public List<DoctorDTO> bySpeciality() {
+        return dao.doctorBySpeciality(Speciality.SURGERY);
+    }
+
+    @Benchmark
+    public List<DoctorDTO> byBirthdateRange() {
+        return dao.doctorByBirthdateRange(LocalDate.of(1960, 1, 1), LocalDate.of(1960, 12, 31));
+    }
+
+    @Benchmark
+    public List<DoctorDTO> byBirthdateRangeLimited() {
+        return dao.doctorByBirthdateRange(LocalDate.of(1960, 1, 1), LocalDate.of(1960, 12, 31), 20);
+    }
+
+    // Baseline: the previous implementation, a filter over every doctor
+    @Benchmark
+    public List<DoctorDTO> byBirthdateRangeScan() {
+        LocalDate from = LocalDate.of(1960, 1, 1);
+        LocalDate to = LocalDate.of(1960, 12, 31);
+        return snapshot.stream()
+            .filter(d -> !d.getDateOfBirth().isBefore(from) && !d.getDateOfBirth().isAfter(to))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,91 @@
+package dat.benchmarks;
+
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.DoctorDTO;
+import dat.enums.Speciality;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead search over a million doctors with Danish style names and clinics, answered from the
+ * in-memory index, which is loaded before measuring. Inserting the doctors takes a few minutes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class DoctorSearchBenchmark {
+    private static final String[] FIRST_NAMES = {"Anna", "Mette", "Hanne", "Camilla", "Kirsten", "Sofie", "Ida", "Maria",
+        "Louise", "Julie", "Peter", "Jens", "Lars", "Michael", "Henrik", "Thomas", "Søren", "Niels", "Rasmus", "Mads",
+        "Jesper", "Anders", "Martin", "Morten", "Christian", "Frederik", "Mikkel", "Emil", "Jonas", "Oliver"};
+    private static final String[] LAST_NAMES = {"Nielsen", "Jensen", "Hansen", "Pedersen", "Andersen", "Christensen",
+        "Larsen", "Sørensen", "Rasmussen", "Jørgensen", "Petersen", "Madsen", "Kristensen", "Olsen", "Thomsen",
+        "Christiansen", "Poulsen", "Johansen", "Møller", "Mortensen", "Knudsen", "Jakobsen", "Mikkelsen", "Olesen",
+        "Frederiksen", "Laursen", "Henriksen", "Lund", "Schmidt", "Eriksen", "Holm", "Kristiansen", "Clausen",
+        "Simonsen", "Svendsen", "Andreasen", "Iversen", "Østergaard", "Jeppesen", "Vestergaard"};
+    private static final String[] TOWNS = {"Nørrebro", "Vesterbro", "Østerbro", "Amager", "Valby", "Frederiksberg",
+        "Aarhus", "Odense", "Aalborg", "Esbjerg", "Randers", "Kolding", "Horsens", "Vejle", "Roskilde", "Herning",
+        "Hørsholm", "Silkeborg", "Næstved", "Fredericia", "Viborg", "Køge", "Holstebro", "Taastrup", "Slagelse",
+        "Hillerød", "Sønderborg", "Svendborg", "Hjørring", "Holbæk"};
+    private static final String[] CLINIC_KINDS = {"Lægehus", "Klinik", "Sundhedshus", "Lægeklinik", "Praksis"};
+
+    @Param({"1000000"})
+    public int doctors;
+
+    @Param({"han", "jens hansen", "nørrebro klinik", "søren østergaard vejle"})
+    public String query;
+
+    private EntityManagerFactory emf;
+    private DoctorDAO doctorDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        emf = BenchmarkData.entityManagerFactory();
+        doctorDAO = DoctorDAO.getInstance(emf);
+        Random random = new Random(42);
+        List<DoctorDTO> batch = new ArrayList<>();
+        for (int i = 0; i < doctors; i++) {
+            String name = "Dr. " + pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES);
+            String clinic = pick(random, TOWNS) + " " + pick(random, CLINIC_KINDS);
+            batch.add(new DoctorDTO(null, name, LocalDate.of(1950, 1, 1).plusDays(i % 20000), 1975 + i % 45,
+                clinic, Speciality.values()[i % Speciality.values().length]));
+            if (batch.size() == 50_000) {
+                doctorDAO.createAll(batch);
+                batch.clear();
+            }
+        }
+        doctorDAO.createAll(batch);
+        // Build the index before measuring
+        doctorDAO.search("warmup", 1);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Appointment").executeUpdate();
+            em.createQuery("DELETE FROM Doctor").executeUpdate();
+            em.getTransaction().commit();
+        }
+        doctorDAO.evictAll();
+        emf.close();
+    }
+
+    @Benchmark
+    public List<DoctorDTO> search() {
+        return doctorDAO.search(query, 10);
+    }
+}
@@ -0,0 +1,88 @@
+package dat.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dat.exceptions.ApiException;
+import dat.exceptions.Message;
+import dat.utils.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The error path of GET /api/doctors/{id} without HTTP and the database: throwing the ApiException for a
+ * missing or malformed id, catching it and serializing its Message body.
+ * The traced variants do it the way the controllers used to, with an exception that fills in its stack
+ * trace, a NumberFormatException for malformed ids and the Message serialized by Jackson.
+ * Run with -prof gc to see the allocations per request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+    private static final ObjectMapper objectMapper = Utils.getObjectMapper();
+
+    private int id = 1_000_000;
+
+    // How the controllers threw client errors before ApiException became stackless
+    private static final class TracedApiException extends Exception {
+        private final int statusCode;
+
+        TracedApiException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+    }
+
+    @Benchmark
+    public String notFoundTraced() throws Exception {
+        int missing = id++;
+        try {
+            throw new TracedApiException(404, "Doctor not found with id: " + missing);
+        } catch (TracedApiException e) {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"));
+            return objectMapper.writeValueAsString(new Message(e.statusCode, e.getMessage(), timestamp));
+        }
+    }
+
+    @Benchmark
+    public String notFound() {
+        int missing = id++;
+        try {
+            throw new ApiException(404, "Doctor not found with id: " + missing);
+        } catch (ApiException e) {
+            return e.toJson();
+        }
+    }
+
+    @Benchmark
+    public String malformedIdTraced() throws Exception {
+        String idParam = "x" + id++;
+        try {
+            try {
+                Integer.parseInt(idParam);
+                throw new IllegalStateException("Parsed " + idParam);
+            } catch (NumberFormatException e) {
+                throw new TracedApiException(400, "Invalid ID format: " + idParam);
+            }
+        } catch (TracedApiException e) {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS"));
+            return objectMapper.writeValueAsString(new Message(e.statusCode, e.getMessage(), timestamp));
+        }
+    }
+
+    @Benchmark
+    public String malformedId() {
+        String idParam = "x" + id++;
+        try {
+            Utils.parseId(idParam);
+            throw new IllegalStateException("Parsed " + idParam);
+        } catch (ApiException e) {
+            return e.toJson();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dat.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dat.dtos.DoctorDTO;
+import dat.utils.Utils;
+import io.javalin.json.JavalinJackson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a doctor and a page of doctors the way responses used to be written and the way they are now.
+ * javalinDefault: ctx.json with Javalin's own default mapper, a String encoded to bytes afterwards.
+ * mapperPerCall: a fresh mapper per call, as Utils.getObjectMapper() and convertToJsonMessage used to do.
+ * sharedWriter: the shared mapper with Blackbird and a pre-resolved ObjectWriter, streamed into the output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonMapperBenchmark {
+
+    @Param({"1", "50"})
+    public int doctors;
+
+    private Object value;
+    private ObjectMapper javalinMapper;
+    private ObjectWriter sharedWriter;
+    private OutputStream output;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        List<DoctorDTO> page = BenchmarkData.doctorDTOs(doctors);
+        value = doctors == 1 ? page.get(0) : page;
+        javalinMapper = JavalinJackson.defaultMapper();
+        sharedWriter = doctors == 1
+            ? Utils.getObjectMapper().writerFor(DoctorDTO.class)
+            : Utils.getObjectMapper().writerFor(new TypeReference<List<DoctorDTO>>() {
+            });
+        // Stands in for the response output stream
+        output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(b);
+            }
+        };
+    }
+
+    @Benchmark
+    public byte[] javalinDefault() throws Exception {
+        return javalinMapper.writeValueAsString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] mapperPerCall() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public void sharedWriter() throws Exception {
+        sharedWriter.writeValue(output, value);
+    }
+}
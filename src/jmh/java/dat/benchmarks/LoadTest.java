@@ -0,0 +1,163 @@
+package dat.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dat.config.ApplicationConfig;
+import dat.config.HibernateConfig;
+import dat.daos.impl.DoctorDAO;
+import dat.utils.Utils;
+import io.javalin.Javalin;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load test comparing request handling on platform threads and on virtual threads
+ * Each client sends its next request as soon as the previous one completes. The server runs in-process
+ * against the Testcontainers database, with a small connection pool to model a saturated database.
+ *
+ * mvn -P benchmark test-compile exec:exec@load-test -Dload.args="--clients 400 --seconds 20"
+ * Options: --clients, --seconds, --warmup, --path, --doctors, --pool, --modes (platform,virtual)
+ * The virtual mode needs JDK 21, on an older JDK the server would fall back to platform threads, so it fails instead
+ * Results are printed and written to target/load-test.json
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "400"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        String path = options.getOrDefault("path", "/api/doctors");
+        int doctors = Integer.parseInt(options.getOrDefault("doctors", "200"));
+        String[] modes = options.getOrDefault("modes", "platform,virtual").split(",");
+        if (Arrays.asList(modes).contains("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("The virtual mode needs Java 21 or later, this is Java " + Runtime.version().feature()
+                + ", run with a JDK 21 JAVA_HOME or --modes platform");
+        }
+
+        // Read by HibernateConfig and ApplicationConfig, see HibernateConfig.getEnv
+        System.setProperty("DB_POOL_SIZE", options.getOrDefault("pool", "10"));
+        System.setProperty("SQL_LOG", "OFF");
+        HibernateConfig.setTest(true);
+        DoctorDAO.getInstance(HibernateConfig.getEntityManagerFactory()).createAll(BenchmarkData.doctorDTOs(doctors));
+
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            System.setProperty("VIRTUAL_THREADS", String.valueOf(mode.equals("virtual")));
+            Javalin app = ApplicationConfig.startServer(0);
+            try {
+                URI uri = URI.create("http://localhost:" + app.port() + path);
+                results.put(mode, run(uri, clients, warmup, seconds));
+            } finally {
+                app.stop();
+            }
+        }
+        HibernateConfig.getEntityManagerFactory().close();
+
+        results.forEach((mode, result) -> System.out.printf("%-8s %s%n", mode, result));
+        ObjectMapper objectMapper = Utils.getObjectMapper();
+        File output = new File("target/load-test.json");
+        output.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output, results);
+    }
+
+    private static Map<String, Object> run(URI uri, int clients, int warmupSeconds, int seconds) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<Recorder>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(executor.submit(() -> {
+                Recorder recorder = new Recorder();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    if (start >= measureFrom) {
+                        recorder.record(System.nanoTime() - start, ok);
+                    }
+                }
+                return recorder;
+            }));
+        }
+        Recorder total = new Recorder();
+        for (Future<Recorder> future : futures) {
+            total.add(future.get());
+        }
+        executor.shutdown();
+        return total.summary(seconds);
+    }
+
+    // Latencies of one client, merged at the end of the run
+    private static class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        void add(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        Map<String, Object> summary(int seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("throughputPerSecond", count / (double) seconds);
+            summary.put("p50Millis", percentile(sorted, 0.50));
+            summary.put("p99Millis", percentile(sorted, 0.99));
+            summary.put("maxMillis", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+            return summary;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
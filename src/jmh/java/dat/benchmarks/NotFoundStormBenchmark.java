@@ -0,0 +1,74 @@
+package dat.benchmarks;
+
+import dat.config.ApplicationConfig;
+import dat.config.HibernateConfig;
+import dat.daos.impl.DoctorDAO;
+import io.javalin.Javalin;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of GET /api/doctors/{id} for bad ids, from several client threads.
+ * Every request is answered with an error and logged by the controller, so this measures what the
+ * logging pipeline costs request threads under a burst of bad requests: ids that don't exist (404)
+ * cost a database lookup each, ids that aren't numbers (400) are rejected before reaching the database.
+ * Runs against the Testcontainers database used by the tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class NotFoundStormBenchmark {
+
+    @Param({"404", "400"})
+    public int status;
+
+    @Param({"100"})
+    public int doctors;
+
+    private Javalin app;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HibernateConfig.setTest(true);
+        app = ApplicationConfig.startServer(0);
+
+        DoctorDAO.getInstance(HibernateConfig.getEntityManagerFactory()).createAll(BenchmarkData.doctorDTOs(doctors));
+
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + app.port() + "/api/doctors/";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.stop();
+        HibernateConfig.getEntityManagerFactory().close();
+    }
+
+    @State(Scope.Thread)
+    public static class Ids {
+        // Far above the ids of the inserted doctors, and different for every request
+        private int next = 1_000_000 + (int) Thread.currentThread().getId() * 1_000_000;
+    }
+
+    @Benchmark
+    public byte[] readBadId(Ids ids) throws Exception {
+        String id = status == 404 ? String.valueOf(ids.next++) : "x" + ids.next++;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + id)).GET().build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body();
+    }
+}
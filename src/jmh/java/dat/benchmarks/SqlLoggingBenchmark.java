@@ -0,0 +1,65 @@
+package dat.benchmarks;
+
+import dat.config.ApplicationConfig;
+import dat.config.HibernateConfig;
+import dat.daos.impl.DoctorDAO;
+import io.javalin.Javalin;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of GET /api/doctors under each SQL logging mode
+ * The request streams every doctor from the database, so each call runs one query.
+ * Runs against the Testcontainers database used by the tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SqlLoggingBenchmark {
+
+    @Param({"OFF", "SLOW", "FULL"})
+    public String mode;
+
+    @Param({"100"})
+    public int doctors;
+
+    private Javalin app;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Read by HibernateConfig when the EntityManagerFactory is created, every fork starts a fresh JVM
+        System.setProperty("SQL_LOG", mode);
+        HibernateConfig.setTest(true);
+        app = ApplicationConfig.startServer(0);
+
+        DoctorDAO.getInstance(HibernateConfig.getEntityManagerFactory()).createAll(BenchmarkData.doctorDTOs(doctors));
+
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + "/api/doctors")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.stop();
+        HibernateConfig.getEntityManagerFactory().close();
+    }
+
+    @Benchmark
+    public byte[] getDoctors() throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -7,24 +7,51 @@ import dat.controllers.impl.ExceptionController;
 import dat.utils.Utils;
 import io.javalin.Javalin;
 import io.javalin.config.JavalinConfig;
+import io.javalin.json.JavalinJackson;
 import jakarta.persistence.EntityManagerFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ApplicationConfig {
 
     private static Routes routes = new Routes();
-    private static ObjectMapper jsonMapper = new Utils().getObjectMapper();
+    private static ObjectMapper jsonMapper = Utils.getObjectMapper();
     private static Logger logger = LoggerFactory.getLogger(ApplicationConfig.class);
     private static ExceptionController exceptionController = new ExceptionController();
+    private static RequestMetrics requestMetrics = RequestMetrics.getInstance();
 
     public static void configuration(JavalinConfig config) {
         config.showJavalinBanner = false;
+        configureThreads(config);
+        // ctx.json and body parsing use the shared mapper instead of a default one of Javalin's
+        config.jsonMapper(new JavalinJackson(jsonMapper, config.useVirtualThreads));
         config.bundledPlugins.enableRouteOverview("/routes");
         config.router.contextPath = "/api";
         config.router.apiBuilder(routes.getRoutes());
     }
 
+    /**
+     * Handlers run on virtual threads when VIRTUAL_THREADS=true (JDK 21+), so a slow database blocks cheap
+     * virtual threads instead of exhausting Jetty's pool, and the connection pool is what limits concurrency.
+     * Otherwise they run on a platform thread pool of HTTP_MAX_THREADS threads (default 250).
+     */
+    private static void configureThreads(JavalinConfig config) {
+        boolean virtualThreads = Boolean.parseBoolean(HibernateConfig.getEnv("VIRTUAL_THREADS", "false"));
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            logger.warn("VIRTUAL_THREADS is set but Java {} has no virtual threads, using platform threads", Runtime.version().feature());
+            virtualThreads = false;
+        }
+        config.useVirtualThreads = virtualThreads;
+        if (!virtualThreads) {
+            int maxThreads = Integer.parseInt(HibernateConfig.getEnv("HTTP_MAX_THREADS", "250"));
+            QueuedThreadPool threadPool = new QueuedThreadPool(maxThreads, Math.min(8, maxThreads), 60_000);
+            threadPool.setName("JettyServerThreadPool");
+            config.jetty.threadPool = threadPool;
+        }
+        logger.info("Handling requests on {} threads", virtualThreads ? "virtual" : "platform");
+    }
+
     public static Javalin startServer(int port) {
         EntityManagerFactory emf = HibernateConfig.getEntityManagerFactory();
 
@@ -34,6 +61,10 @@ public class ApplicationConfig {
         app.exception(ApiException.class, exceptionController::apiExceptionHandler);
         app.exception(Exception.class, exceptionController::exceptionHandler);
 
+        // Per-route request metrics, served on /api/metrics
+        app.before(requestMetrics::before);
+        app.after(requestMetrics::after);
+
         app.start(port);
         return app;
     }
@@ -0,0 +1,116 @@
+package dat.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import dat.dtos.PoolStatisticsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects HikariCP pool metrics: pool occupancy from Hikari's PoolStats,
+ * plus connection acquire latency, usage time and timeouts recorded by the pool
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+    private String poolName;
+    private PoolStats poolStats;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder usages = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Attaches a metrics collector to the Hikari pool behind the given EntityManagerFactory
+     * @return the collector, or null if the factory does not use HikariCP
+     */
+    public static ConnectionPoolMetrics install(EntityManagerFactory emf) {
+        HikariDataSource dataSource = dataSource(emf);
+        if (dataSource == null) {
+            return null;
+        }
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+        dataSource.setMetricsTrackerFactory(metrics);
+        return metrics;
+    }
+
+    /**
+     * @return the collector installed on the pool behind the given EntityManagerFactory, or null if there is none
+     */
+    public static ConnectionPoolMetrics of(EntityManagerFactory emf) {
+        HikariDataSource dataSource = dataSource(emf);
+        if (dataSource != null && dataSource.getMetricsTrackerFactory() instanceof ConnectionPoolMetrics metrics) {
+            return metrics;
+        }
+        return null;
+    }
+
+    private static HikariDataSource dataSource(EntityManagerFactory emf) {
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(ConnectionProvider.class);
+        if (provider == null || !provider.isUnwrappableAs(HikariDataSource.class)) {
+            return null;
+        }
+        return provider.unwrap(HikariDataSource.class);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usages.increment();
+                usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * Current pool occupancy and the acquire/usage statistics recorded since startup
+     */
+    public PoolStatisticsDTO snapshot() {
+        long acquired = acquisitions.sum();
+        long used = usages.sum();
+        return new PoolStatisticsDTO(
+            poolName,
+            poolStats == null ? 0 : poolStats.getActiveConnections(),
+            poolStats == null ? 0 : poolStats.getIdleConnections(),
+            poolStats == null ? 0 : poolStats.getTotalConnections(),
+            poolStats == null ? 0 : poolStats.getPendingThreads(),
+            poolStats == null ? 0 : poolStats.getMaxConnections(),
+            poolStats == null ? 0 : poolStats.getMinConnections(),
+            acquired,
+            acquired == 0 ? 0 : toMillis(acquireNanos.sum()) / acquired,
+            toMillis(maxAcquireNanos.get()),
+            timeouts.sum(),
+            used == 0 ? 0 : (double) usageMillis.sum() / used
+        );
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,286 @@
+package dat.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.hibernate.stat.SessionStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of DAO operations, split into phases:
+ * open (creating the EntityManager), connection (acquiring a pooled connection), sql (preparing and
+ * executing statements), hydration (reading result sets into entities or DTOs) and mapping (turning
+ * entities into DTOs after the query returned). Each operation also counts rows, statements, and the
+ * entities and collections its session ended up holding.
+ * The JDBC phases come from a Hibernate SessionEventListener that is attached to the session the
+ * operation opens, and operations slower than DAO_SLOW_THRESHOLD_MS (default 200) are logged.
+ */
+public class DaoMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DaoMetrics.class);
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final String[] PHASES = {"open", "connection", "sql", "hydration", "mapping"};
+    // The operation opening a session on this thread, picked up by its SessionListener
+    private static final ThreadLocal<Operation> opening = new ThreadLocal<>();
+
+    private static DaoMetrics instance;
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos =
+        TimeUnit.MILLISECONDS.toNanos(Long.parseLong(HibernateConfig.getEnv("DAO_SLOW_THRESHOLD_MS", "200")));
+
+    /**
+     * Totals of one operation, recorded when an Operation closes
+     */
+    static final class OperationMetrics {
+        private final Recorder recorder = new Recorder(MAX_MICROS, 2);
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder[] phaseNanos = new LongAdder[PHASES.length];
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder entities = new LongAdder();
+        private final LongAdder collections = new LongAdder();
+        private Histogram total;
+        private Histogram interval;
+
+        OperationMetrics() {
+            for (int i = 0; i < phaseNanos.length; i++) {
+                phaseNanos[i] = new LongAdder();
+            }
+        }
+
+        synchronized Histogram snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            if (total == null) {
+                total = interval.copy();
+            } else {
+                total.add(interval);
+            }
+            return total.copy();
+        }
+    }
+
+    /**
+     * One timed call, from opening its EntityManager to closing it. Used by a single thread.
+     */
+    public final class Operation implements AutoCloseable {
+        private final String name;
+        private final long start = System.nanoTime();
+        private final EntityManager em;
+        private final long opened;
+        private boolean hasFetched;
+        private long fetched;
+        private long rows;
+        private long connectionNanos;
+        private long sqlNanos;
+        private int statements;
+
+        private Operation(String name, EntityManagerFactory emf) {
+            this.name = name;
+            opening.set(this);
+            try {
+                em = emf.createEntityManager();
+            } finally {
+                opening.remove();
+            }
+            opened = System.nanoTime();
+        }
+
+        public EntityManager entityManager() {
+            return em;
+        }
+
+        /**
+         * Marks the end of the query, later work counts as mapping
+         */
+        public void fetched(long rows) {
+            this.rows += rows;
+            hasFetched = true;
+            fetched = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            SessionStatistics session = null;
+            try {
+                if (em.isOpen()) {
+                    session = em.unwrap(Session.class).getStatistics();
+                }
+                record(this, session == null ? 0 : session.getEntityCount(), session == null ? 0 : session.getCollectionCount());
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    /**
+     * Attached to every Hibernate session through hibernate.session.events.auto, and reports JDBC timings
+     * to the Operation that opened the session. Sessions opened outside an Operation are ignored.
+     */
+    public static class SessionListener extends BaseSessionEventListener {
+        private final Operation operation = opening.get();
+        private long connectionStart;
+        private long prepareStart;
+        private long executeStart;
+        private long batchStart;
+
+        @Override
+        public void jdbcConnectionAcquisitionStart() {
+            connectionStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcConnectionAcquisitionEnd() {
+            if (operation != null) {
+                operation.connectionNanos += System.nanoTime() - connectionStart;
+            }
+        }
+
+        @Override
+        public void jdbcPrepareStatementStart() {
+            prepareStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcPrepareStatementEnd() {
+            if (operation != null) {
+                operation.sqlNanos += System.nanoTime() - prepareStart;
+            }
+        }
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            executeStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            if (operation != null) {
+                operation.sqlNanos += System.nanoTime() - executeStart;
+                operation.statements++;
+            }
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batchStart = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            if (operation != null) {
+                operation.sqlNanos += System.nanoTime() - batchStart;
+                operation.statements++;
+            }
+        }
+    }
+
+    private DaoMetrics() {
+    }
+
+    public static synchronized DaoMetrics getInstance() {
+        if (instance == null) {
+            instance = new DaoMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Opens an EntityManager for the named operation, closing the Operation closes it and records the timings
+     */
+    public Operation start(String name, EntityManagerFactory emf) {
+        return new Operation(name, emf);
+    }
+
+    private void record(Operation operation, long entities, long collections) {
+        long end = System.nanoTime();
+        long total = end - operation.start;
+        long open = operation.opened - operation.start;
+        long jdbc = operation.connectionNanos + operation.sqlNanos;
+        long hydration = 0;
+        long mapping = 0;
+        if (operation.hasFetched) {
+            hydration = Math.max(0, operation.fetched - operation.opened - jdbc);
+            mapping = end - operation.fetched;
+        }
+        long[] phases = {open, operation.connectionNanos, operation.sqlNanos, hydration, mapping};
+
+        OperationMetrics metrics = operations.get(operation.name);
+        if (metrics == null) {
+            metrics = operations.computeIfAbsent(operation.name, key -> new OperationMetrics());
+        }
+        metrics.recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(total), MAX_MICROS));
+        metrics.totalNanos.add(total);
+        for (int i = 0; i < phases.length; i++) {
+            metrics.phaseNanos[i].add(phases[i]);
+        }
+        metrics.rows.add(operation.rows);
+        metrics.statements.add(operation.statements);
+        metrics.entities.add(entities);
+        metrics.collections.add(collections);
+
+        if (total >= slowThresholdNanos) {
+            LOGGER.warn("Slow DAO operation {} took {} ms: open {} ms, connection {} ms, sql {} ms in {} statements,"
+                    + " hydration {} ms, mapping {} ms, {} rows, {} entities, {} collections",
+                operation.name, millis(total), millis(open), millis(operation.connectionNanos), millis(operation.sqlNanos),
+                operation.statements, millis(hydration), millis(mapping), operation.rows, entities, collections);
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Appends the metrics in the Prometheus text exposition format: a latency summary per operation,
+     * the time spent in each phase, and rows, statements, entities and collections per operation
+     */
+    public void writePrometheus(StringBuilder out) {
+        StringBuilder phases = new StringBuilder();
+        StringBuilder counts = new StringBuilder();
+        out.append("# HELP dao_operation_seconds DAO operation latency\n");
+        out.append("# TYPE dao_operation_seconds summary\n");
+        phases.append("# HELP dao_operation_phase_seconds_total Time spent per DAO operation phase\n");
+        phases.append("# TYPE dao_operation_phase_seconds_total counter\n");
+        counts.append("# HELP dao_operation_rows_total Rows returned by DAO operations\n");
+        counts.append("# TYPE dao_operation_rows_total counter\n");
+
+        StringBuilder statements = new StringBuilder();
+        statements.append("# HELP dao_operation_statements_total JDBC statements and batches executed by DAO operations\n");
+        statements.append("# TYPE dao_operation_statements_total counter\n");
+        StringBuilder entities = new StringBuilder();
+        entities.append("# HELP dao_operation_entities_total Entities held by the sessions of DAO operations when they closed\n");
+        entities.append("# TYPE dao_operation_entities_total counter\n");
+        StringBuilder collections = new StringBuilder();
+        collections.append("# HELP dao_operation_collections_total Collections held by the sessions of DAO operations when they closed\n");
+        collections.append("# TYPE dao_operation_collections_total counter\n");
+        operations.forEach((name, metrics) -> {
+            String labels = "operation=\"" + name + "\"";
+            Histogram histogram = metrics.snapshot();
+            for (double quantile : QUANTILES) {
+                out.append("dao_operation_seconds{").append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getValueAtPercentile(quantile * 100) / 1_000_000.0).append('\n');
+            }
+            out.append("dao_operation_seconds_count{").append(labels).append("} ").append(histogram.getTotalCount()).append('\n');
+            out.append("dao_operation_seconds_sum{").append(labels).append("} ").append(metrics.totalNanos.sum() / 1e9).append('\n');
+            for (int i = 0; i < PHASES.length; i++) {
+                phases.append("dao_operation_phase_seconds_total{").append(labels).append(",phase=\"").append(PHASES[i]).append("\"} ")
+                    .append(metrics.phaseNanos[i].sum() / 1e9).append('\n');
+            }
+            counts.append("dao_operation_rows_total{").append(labels).append("} ").append(metrics.rows.sum()).append('\n');
+            statements.append("dao_operation_statements_total{").append(labels).append("} ").append(metrics.statements.sum()).append('\n');
+            entities.append("dao_operation_entities_total{").append(labels).append("} ").append(metrics.entities.sum()).append('\n');
+            collections.append("dao_operation_collections_total{").append(labels).append("} ").append(metrics.collections.sum()).append('\n');
+        });
+        out.append(phases).append(counts).append(statements).append(entities).append(collections);
+    }
+}
@@ -0,0 +1,122 @@
+package dat.config;
+
+import dat.exceptions.ApiException;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executor for blocking database work started by asynchronous handlers
+ * It has as many threads as the connection pool has connections, so queued work waits here instead of
+ * inside the pool, and a bounded queue so overload is rejected rather than buffered without limit.
+ * Every call gets its own timeout. A call that times out or is rejected fails with a 503 ApiException;
+ * one still queued is removed and never runs, a query that is already running is not interrupted and its
+ * result is discarded.
+ * Writes only time out while they wait in the queue: once a write has started it may commit, so its
+ * caller waits for the outcome instead of answering 503 for a write that can still land.
+ */
+public class DatabaseExecutor {
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    /**
+     * Work that may fail with an ApiException, which is passed on to the caller unchanged
+     */
+    @FunctionalInterface
+    public interface DatabaseCall<T> {
+        T call() throws ApiException;
+    }
+
+    public DatabaseExecutor(String name, int threads, int queueCapacity, long timeoutMillis) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Creates an executor with one thread per pooled connection of the given factory.
+     * DB_EXECUTOR_QUEUE bounds the waiting work and REQUEST_TIMEOUT_MS limits each call.
+     */
+    public static DatabaseExecutor forPool(String name, EntityManagerFactory emf) {
+        int threads = Integer.parseInt(String.valueOf(emf.getProperties().getOrDefault("hibernate.hikari.maximumPoolSize", "10")));
+        int queueCapacity = Integer.parseInt(HibernateConfig.getEnv("DB_EXECUTOR_QUEUE", String.valueOf(threads * 20)));
+        long timeoutMillis = Long.parseLong(HibernateConfig.getEnv("REQUEST_TIMEOUT_MS", "5000"));
+        return new DatabaseExecutor(name, threads, queueCapacity, timeoutMillis);
+    }
+
+    /**
+     * Runs the call on the executor, failing with a 503 ApiException if it is rejected or does not finish in time
+     */
+    public <T> CompletableFuture<T> supply(DatabaseCall<T> call) {
+        return submit(call, false);
+    }
+
+    /**
+     * Runs a call that changes data. It fails with a 503 ApiException if it is rejected or still queued when the
+     * timeout passes, and is then never run, so the client can safely retry. Once started it is waited for.
+     */
+    public <T> CompletableFuture<T> write(DatabaseCall<T> call) {
+        return submit(call, true);
+    }
+
+    private <T> CompletableFuture<T> submit(DatabaseCall<T> call, boolean waitOnceStarted) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        // Taken by whichever comes first, the call starting or the timeout
+        AtomicBoolean claimed = new AtomicBoolean();
+        Runnable task = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                future.complete(call.call());
+            } catch (ApiException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new ApiException(503, "Server is busy, try again later"));
+        }
+        CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            if (claimed.compareAndSet(false, true)) {
+                // Still queued, nobody waits for it any more, so it gives its place in the queue back
+                executor.remove(task);
+                future.completeExceptionally(new ApiException(503, waitOnceStarted
+                    ? "Request was not started within " + timeoutMillis + " ms, nothing was changed"
+                    : "Request timed out after " + timeoutMillis + " ms"));
+            } else if (!waitOnceStarted) {
+                future.completeExceptionally(new ApiException(503, "Request timed out after " + timeoutMillis + " ms"));
+            }
+        });
+        return future;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
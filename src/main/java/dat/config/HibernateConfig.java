@@ -5,6 +5,7 @@ import dat.entities.Doctor;
 import dat.exceptions.ApiException;
 import dat.utils.Utils;
 import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.cfg.Configuration;
@@ -17,6 +18,19 @@ import java.util.Properties;
  * Provides EntityManagerFactory for both production and test environments
  */
 public class HibernateConfig {
+    // JDBC batch size, also used by the DAOs to flush and clear during bulk operations
+    public static final int BATCH_SIZE = 50;
+
+    /**
+     * SQL logging policy, selected per environment and overridable with the SQL_LOG environment variable
+     * OFF: nothing is logged. SLOW: statements slower than SQL_SLOW_THRESHOLD_MS are logged to org.hibernate.SQL_SLOW,
+     * which logback.xml samples and writes asynchronously. FULL: every statement is formatted and printed.
+     * In any mode, SQL_LOG_BINDS=trace logs the bind parameters of every statement, slow or not, unsampled.
+     */
+    public enum SqlLogging {
+        OFF, SLOW, FULL
+    }
+
     private static EntityManagerFactory emf;
     private static EntityManagerFactory emfTest;
     private static Boolean isTest = false;
@@ -67,7 +81,6 @@ public class HibernateConfig {
      */
     private static EntityManagerFactory createEMF(boolean forTest) {
         try {
-            Configuration configuration = new Configuration();
             Properties props = new Properties();
 
             // Set base properties for Hibernate
@@ -78,25 +91,44 @@ public class HibernateConfig {
                 props = setTestProperties(props);
             } else if (System.getenv("DEPLOYED") != null) {
                 props = setDeployedProperties(props);
+                migrate(props);
             } else {
                 props = setDevProperties(props);
             }
-
-            configuration.setProperties(props);
-            getAnnotationConfiguration(configuration);
-
-            ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
-                .applySettings(configuration.getProperties())
-                .build();
-
-            SessionFactory sf = configuration.buildSessionFactory(serviceRegistry);
-            return sf.unwrap(EntityManagerFactory.class);
+            return buildEMF(props);
         } catch (Throwable ex) {
             System.err.println("Initial SessionFactory creation failed: " + ex);
             throw new ExceptionInInitializerError(ex);
         }
     }
 
+    /**
+     * Create an EntityManagerFactory configured as in deployed mode for the given database,
+     * which is migrated first and then validated against the entities
+     */
+    static EntityManagerFactory createDeployedEMF(String connectionString, String username, String password) {
+        Properties props = new Properties();
+        setBaseProperties(props);
+        setDeployedProperties(props, connectionString, username, password);
+        migrate(props);
+        return buildEMF(props);
+    }
+
+    private static EntityManagerFactory buildEMF(Properties props) {
+        Configuration configuration = new Configuration();
+        configuration.setProperties(props);
+        getAnnotationConfiguration(configuration);
+
+        ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+            .applySettings(configuration.getProperties())
+            .build();
+
+        SessionFactory sf = configuration.buildSessionFactory(serviceRegistry);
+        EntityManagerFactory factory = sf.unwrap(EntityManagerFactory.class);
+        ConnectionPoolMetrics.install(factory);
+        return factory;
+    }
+
     /**
      * Configure base Hibernate properties
      * These are common across all environments
@@ -106,9 +138,27 @@ public class HibernateConfig {
         props.put("hibernate.connection.driver_class", "org.postgresql.Driver");
         props.put("hibernate.hbm2ddl.auto", "update"); // Automatically update schema
         props.put("hibernate.current_session_context_class", "thread");
-        props.put("hibernate.show_sql", "true");
-        props.put("hibernate.format_sql", "true");
-        props.put("hibernate.use_sql_comments", "true");
+        // Group inserts and updates into JDBC batches
+        props.put("hibernate.jdbc.batch_size", String.valueOf(BATCH_SIZE));
+        props.put("hibernate.order_inserts", "true");
+        props.put("hibernate.order_updates", "true");
+        props.put("hibernate.jdbc.batch_versioned_data", "true");
+        // Second-level and query cache, backed by Caffeine through JCache (regions in application.conf)
+        props.put("hibernate.cache.use_second_level_cache", "true");
+        props.put("hibernate.cache.use_query_cache", "true");
+        props.put("hibernate.cache.region.factory_class", "jcache");
+        props.put("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        props.put("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        props.put("hibernate.generate_statistics", "true"); // Cache hit/miss counts, see StatisticsController
+        // JDBC timings of each DAO operation, see DaoMetrics
+        props.put("hibernate.session.events.auto", DaoMetrics.SessionListener.class.getName());
+        // HikariCP connection pool, sized per environment below
+        props.put("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+        props.put("hibernate.hikari.poolName", "doctors-pool");
+        // pgjdbc: server-side prepared statement cache per connection, and multi-row batched inserts
+        props.put("hibernate.hikari.dataSource.prepareThreshold", "3");
+        props.put("hibernate.hikari.dataSource.preparedStatementCacheSizeMiB", "5");
+        props.put("hibernate.hikari.dataSource.reWriteBatchedInserts", "true");
         // Configure proper character encoding for database connections
         props.put("hibernate.connection.CharSet", "utf8");
         props.put("hibernate.connection.characterEncoding", "utf8");
@@ -128,6 +178,11 @@ public class HibernateConfig {
         props.put("hibernate.connection.url", connectionString);
         props.put("hibernate.connection.username", "postgres");
         props.put("hibernate.connection.password", "postgres");
+
+        setSqlLoggingProperties(props, SqlLogging.FULL);
+
+        // Small pool, and a short leak threshold so unclosed EntityManagers show up while developing
+        setPoolProperties(props, "5", "1", "30000", "10000");
         return props;
     }
 
@@ -137,7 +192,10 @@ public class HibernateConfig {
     private static Properties setDeployedProperties(Properties props) {
         String DBName = System.getenv("DB_NAME");
         String connectionString = System.getenv("CONNECTION_STR") + DBName;
+        return setDeployedProperties(props, connectionString, System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"));
+    }
 
+    private static Properties setDeployedProperties(Properties props, String connectionString, String username, String password) {
         if (!connectionString.contains("?")) {
             connectionString += "?";
         } else {
@@ -146,11 +204,73 @@ public class HibernateConfig {
         connectionString += "characterEncoding=utf8&useUnicode=true";
 
         props.setProperty("hibernate.connection.url", connectionString);
-        props.setProperty("hibernate.connection.username", System.getenv("DB_USERNAME"));
-        props.setProperty("hibernate.connection.password", System.getenv("DB_PASSWORD"));
+        props.setProperty("hibernate.connection.username", username);
+        props.setProperty("hibernate.connection.password", password);
+
+        // The schema is owned by the Flyway migrations, Hibernate only checks that it matches the entities
+        props.setProperty("hibernate.hbm2ddl.auto", "validate");
+
+        setSqlLoggingProperties(props, SqlLogging.OFF);
+
+        // Fixed size pool (minimum idle equals maximum) that fails fast when exhausted
+        setPoolProperties(props, "10", "10", "5000", "60000");
         return props;
     }
 
+    /**
+     * Apply the versioned migrations in db/migration before Hibernate validates the schema.
+     * Databases created by hbm2ddl before migrations existed are baselined at version 0, the
+     * migrations are written to apply on top of them.
+     */
+    private static void migrate(Properties props) {
+        Flyway.configure()
+            .dataSource(props.getProperty("hibernate.connection.url"),
+                props.getProperty("hibernate.connection.username"),
+                props.getProperty("hibernate.connection.password"))
+            .baselineOnMigrate(true)
+            .baselineVersion("0")
+            .load()
+            .migrate();
+    }
+
+    /**
+     * Configure the HikariCP pool, each value can be overridden with an environment variable
+     * @param maxSize maximum number of connections (DB_POOL_SIZE)
+     * @param minIdle minimum number of idle connections (DB_POOL_MIN_IDLE)
+     * @param connectionTimeout milliseconds to wait for a connection before failing (DB_POOL_CONNECTION_TIMEOUT)
+     * @param leakDetectionThreshold milliseconds a connection may be held before a leak is logged, 0 disables (DB_POOL_LEAK_DETECTION)
+     * The pgjdbc prepared statement cache size is read from DB_STATEMENT_CACHE_SIZE.
+     */
+    private static void setPoolProperties(Properties props, String maxSize, String minIdle, String connectionTimeout, String leakDetectionThreshold) {
+        props.put("hibernate.hikari.maximumPoolSize", getEnv("DB_POOL_SIZE", maxSize));
+        props.put("hibernate.hikari.minimumIdle", getEnv("DB_POOL_MIN_IDLE", minIdle));
+        props.put("hibernate.hikari.connectionTimeout", getEnv("DB_POOL_CONNECTION_TIMEOUT", connectionTimeout));
+        props.put("hibernate.hikari.leakDetectionThreshold", getEnv("DB_POOL_LEAK_DETECTION", leakDetectionThreshold));
+        props.put("hibernate.hikari.dataSource.preparedStatementCacheQueries", getEnv("DB_STATEMENT_CACHE_SIZE", "256"));
+    }
+
+    /**
+     * Configure SQL logging for the given mode, or the mode named by SQL_LOG
+     */
+    private static void setSqlLoggingProperties(Properties props, SqlLogging defaultMode) {
+        SqlLogging mode = SqlLogging.valueOf(getEnv("SQL_LOG", defaultMode.name()).toUpperCase());
+        boolean full = mode == SqlLogging.FULL;
+        props.put("hibernate.show_sql", String.valueOf(full));
+        props.put("hibernate.format_sql", String.valueOf(full));
+        props.put("hibernate.use_sql_comments", String.valueOf(full));
+        // generate_statistics would otherwise log a metrics summary at INFO for every session
+        props.put("hibernate.session.events.log", String.valueOf(full));
+        if (mode == SqlLogging.SLOW) {
+            props.put("hibernate.session.events.log.LOG_QUERIES_SLOWER_THAN_MS", getEnv("SQL_SLOW_THRESHOLD_MS", "200"));
+        }
+    }
+
+    // System properties take precedence, so benchmarks and tests can switch settings per JVM
+    public static String getEnv(String name, String defaultValue) {
+        String value = System.getProperty(name, System.getenv(name));
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
     /**
      * Configure test environment properties using TestContainers
      */
@@ -160,8 +280,9 @@ public class HibernateConfig {
         props.put("hibernate.connection.username", "postgres");
         props.put("hibernate.connection.password", "postgres");
         props.put("hibernate.archive.autodetection", "class");
-        props.put("hibernate.show_sql", "true");
         props.put("hibernate.hbm2ddl.auto", "create-drop"); // Clean database after each test
+        setSqlLoggingProperties(props, SqlLogging.SLOW);
+        setPoolProperties(props, "4", "1", "30000", "0");
         return props;
     }
 }
\ No newline at end of file
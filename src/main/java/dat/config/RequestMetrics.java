@@ -0,0 +1,158 @@
+package dat.config;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counts, status classes and latency histograms per route, recorded by before/after handlers.
+ * Latencies go into an HdrHistogram Recorder per route, which records wait-free and without allocating,
+ * the only allocation per request is the start timestamp, see before.
+ * Routes are keyed by method and endpoint path below /api ("/doctors/{id}"), so ids don't create new series,
+ * and requests that match no endpoint share one "unmatched" route.
+ * Quantiles cover all requests since startup.
+ */
+public class RequestMetrics {
+    static final String UNMATCHED = "unmatched";
+    private static final String START_ATTRIBUTE = "metrics.start";
+    // Latencies are recorded in microseconds, anything slower than a minute counts as a minute
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static RequestMetrics instance;
+
+    // One map per method, so the lookup needs no composite key
+    private final Map<HandlerType, Map<String, RouteMetrics>> routes = new EnumMap<>(HandlerType.class);
+
+    /**
+     * Counters and latency recorder of one route. Writers only touch the recorder and adders,
+     * the reader folds the recorder's interval histograms into the running total.
+     */
+    static final class RouteMetrics {
+        private final Recorder recorder = new Recorder(MAX_MICROS, 2);
+        private final LongAdder[] statusClasses = new LongAdder[6];
+        private final LongAdder totalMicros = new LongAdder();
+        private Histogram total;
+        private Histogram interval;
+
+        RouteMetrics() {
+            for (int i = 1; i < statusClasses.length; i++) {
+                statusClasses[i] = new LongAdder();
+            }
+        }
+
+        void record(int status, long micros) {
+            recorder.recordValue(Math.min(Math.max(micros, 0), MAX_MICROS));
+            totalMicros.add(micros);
+            int statusClass = status / 100;
+            statusClasses[statusClass >= 1 && statusClass <= 5 ? statusClass : 5].increment();
+        }
+
+        synchronized Histogram snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            if (total == null) {
+                total = interval.copy();
+            } else {
+                total.add(interval);
+            }
+            return total.copy();
+        }
+    }
+
+    private RequestMetrics() {
+        for (HandlerType method : HandlerType.values()) {
+            routes.put(method, new ConcurrentHashMap<>());
+        }
+    }
+
+    public static synchronized RequestMetrics getInstance() {
+        if (instance == null) {
+            instance = new RequestMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Before handler, notes the start of the request.
+     * The boxed Long and its entry in the request's attributes are allocated for every request. A reused
+     * per-thread holder would not avoid the entry, and async handlers finish on another thread than they start.
+     */
+    public void before(Context ctx) {
+        ctx.attribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    /**
+     * After handler, records the request under its route. Also runs after exception handlers and 404s.
+     */
+    public void after(Context ctx) {
+        Long start = ctx.attribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        String route = ctx.endpointHandlerPath();
+        // Without a matching endpoint Javalin reports a description instead of a path
+        if (route == null || !route.startsWith("/")) {
+            route = UNMATCHED;
+        }
+        record(ctx.method(), route, ctx.statusCode(), System.nanoTime() - start);
+    }
+
+    void record(HandlerType method, String route, int status, long nanos) {
+        Map<String, RouteMetrics> byRoute = routes.get(method);
+        RouteMetrics metrics = byRoute.get(route);
+        if (metrics == null) {
+            metrics = byRoute.computeIfAbsent(route, key -> new RouteMetrics());
+        }
+        metrics.record(status, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Appends the metrics in the Prometheus text exposition format: a latency summary with quantiles,
+     * a request counter per status class and the slowest request per route
+     */
+    public void writePrometheus(StringBuilder out) {
+        out.append("# HELP http_server_requests_seconds Request latency per route\n");
+        out.append("# TYPE http_server_requests_seconds summary\n");
+        StringBuilder counts = new StringBuilder();
+        counts.append("# HELP http_server_requests_total Requests per route and status class\n");
+        counts.append("# TYPE http_server_requests_total counter\n");
+        StringBuilder max = new StringBuilder();
+        max.append("# HELP http_server_requests_seconds_max Slowest request per route since startup\n");
+        max.append("# TYPE http_server_requests_seconds_max gauge\n");
+
+        routes.forEach((method, byRoute) -> byRoute.forEach((route, metrics) -> {
+            String labels = "method=\"" + method + "\",route=\"" + escape(route) + "\"";
+            Histogram histogram = metrics.snapshot();
+            for (double quantile : QUANTILES) {
+                out.append("http_server_requests_seconds{").append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.getValueAtPercentile(quantile * 100))).append('\n');
+            }
+            out.append("http_server_requests_seconds_count{").append(labels).append("} ").append(histogram.getTotalCount()).append('\n');
+            out.append("http_server_requests_seconds_sum{").append(labels).append("} ").append(seconds(metrics.totalMicros.sum())).append('\n');
+            for (int i = 1; i < metrics.statusClasses.length; i++) {
+                long count = metrics.statusClasses[i].sum();
+                if (count > 0) {
+                    counts.append("http_server_requests_total{").append(labels).append(",status=\"").append(i).append("xx\"} ")
+                        .append(count).append('\n');
+                }
+            }
+            max.append("http_server_requests_seconds_max{").append(labels).append("} ").append(seconds(histogram.getMaxValue())).append('\n');
+        }));
+        out.append(counts).append(max);
+    }
+
+    private static String seconds(long micros) {
+        return String.valueOf(micros / 1_000_000.0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
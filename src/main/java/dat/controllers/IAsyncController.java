@@ -0,0 +1,54 @@
+package dat.controllers;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Generic interface for asynchronous REST controllers
+ * Handlers hand the database work to an executor and return a future that completes once the
+ * response has been written, so the request thread is released while the query runs.
+ * Register them through {@link #handler(Function)}, which passes the future to ctx.future(...).
+ * @param <T> The type of the DTO
+ * @param <ID> The type of the identifier
+ */
+public interface IAsyncController<T, ID> {
+    /**
+     * Retrieves a single entity by its ID
+     * @param ctx Javalin context containing the ID parameter
+     */
+    CompletableFuture<Void> read(Context ctx);
+
+    /**
+     * Retrieves all entities
+     * @param ctx Javalin context for returning the response
+     */
+    CompletableFuture<Void> readAll(Context ctx);
+
+    /**
+     * Creates a new entity
+     * @param ctx Javalin context containing the entity data in request body
+     */
+    CompletableFuture<Void> create(Context ctx);
+
+    /**
+     * Updates an existing entity
+     * @param ctx Javalin context containing the ID parameter and updated entity data
+     */
+    CompletableFuture<Void> update(Context ctx);
+
+    /**
+     * Deletes an entity by its ID
+     * @param ctx Javalin context containing the ID parameter
+     */
+    CompletableFuture<Void> delete(Context ctx);
+
+    /**
+     * Adapts an asynchronous handler to a Javalin handler
+     */
+    static Handler handler(Function<Context, CompletableFuture<Void>> action) {
+        return ctx -> ctx.future(() -> action.apply(ctx));
+    }
+}
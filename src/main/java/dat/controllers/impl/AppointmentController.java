@@ -0,0 +1,169 @@
+package dat.controllers.impl;
+
+import dat.config.HibernateConfig;
+import dat.daos.impl.AppointmentDAO;
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.AppointmentDTO;
+import dat.exceptions.ApiException;
+import dat.exceptions.Message;
+import dat.utils.Utils;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * REST endpoints for appointments, served without loading the doctor's full appointment list
+ */
+public class AppointmentController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AppointmentController.class);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_WINDOW_DAYS = 30;
+    private final AppointmentDAO dao;
+    private final DoctorDAO doctorDAO;
+
+    public AppointmentController() {
+        EntityManagerFactory emf = HibernateConfig.getEntityManagerFactory();
+        this.dao = AppointmentDAO.getInstance(emf);
+        this.doctorDAO = DoctorDAO.getInstance(emf);
+    }
+
+    // GET /api/appointments/{id}
+    public void read(Context ctx) {
+        try {
+            int id = Utils.parseId(ctx.pathParam("id"));
+            AppointmentDTO appointment = dao.read(id);
+            if (appointment == null) {
+                throw new ApiException(404, "Appointment not found with id: " + id);
+            }
+            ctx.status(200).json(appointment);
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "read");
+            e.respond(ctx);
+        }
+    }
+
+    /**
+     * Returns a doctor's appointments dated between ?from= and ?to= (inclusive), ordered by date and time.
+     * The window defaults to the next 30 days. Results are paged with ?limit=, and the X-Next-After
+     * header holds the cursor to pass as ?after= for the next page.
+     */
+    public void readByDoctor(Context ctx) {
+        try {
+            int doctorId = Utils.parseId(ctx.pathParam("id"));
+            LocalDate from = ctx.queryParam("from") == null ? LocalDate.now() : parseDate(ctx.queryParam("from"));
+            LocalDate to = ctx.queryParam("to") == null ? from.plusDays(DEFAULT_WINDOW_DAYS) : parseDate(ctx.queryParam("to"));
+            if (from.isAfter(to)) {
+                throw new ApiException(400, "From date cannot be after to date");
+            }
+            AppointmentDAO.After after = ctx.queryParam("after") == null ? null : parseAfter(ctx.queryParam("after"));
+            int limit = parseLimit(ctx.queryParam("limit"));
+
+            // Served from the doctor DTO cache, so this check rarely costs a query
+            if (doctorDAO.read(doctorId) == null) {
+                throw new ApiException(404, "Doctor not found with id: " + doctorId);
+            }
+
+            List<AppointmentDTO> appointments = dao.readByDoctor(doctorId, from, to, after, limit);
+            if (appointments.size() == limit) {
+                AppointmentDTO last = appointments.get(appointments.size() - 1);
+                ctx.header("X-Next-After", last.getDate() + "," + last.getTime() + "," + last.getId());
+            }
+            ctx.status(200).json(appointments);
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "readByDoctor");
+            e.respond(ctx);
+        }
+    }
+
+    // POST /api/doctors/{id}/appointments
+    public void create(Context ctx) {
+        try {
+            int doctorId = Utils.parseId(ctx.pathParam("id"));
+            AppointmentDTO appointment = validateEntity(ctx);
+            appointment.setId(null);
+            AppointmentDTO created = dao.create(doctorId, appointment);
+            if (created == null) {
+                throw new ApiException(404, "Doctor not found with id: " + doctorId);
+            }
+            ctx.status(201).json(created);
+
+        } catch (BadRequestResponse e) {
+            LOGGER.error("Validation error in create: {}", e.getMessage());
+            ctx.status(400)
+                .json(new Message(400, "Validation error: " + e.getMessage()));
+        } catch (ApiException e) {
+            e.log(LOGGER, "create");
+            e.respond(ctx);
+        }
+    }
+
+    // DELETE /api/appointments/{id} - Cancel an appointment
+    public void cancel(Context ctx) {
+        try {
+            int id = Utils.parseId(ctx.pathParam("id"));
+            if (!dao.cancel(id)) {
+                throw new ApiException(404, "Appointment not found with id: " + id);
+            }
+            ctx.status(204);
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "cancel");
+            e.respond(ctx);
+        }
+    }
+
+    public AppointmentDTO validateEntity(Context ctx) {
+        return ctx.bodyValidator(AppointmentDTO.class)
+            .check(a -> a.getClientName() != null && !a.getClientName().trim().isEmpty(), "Client name is required")
+            .check(a -> a.getDate() != null, "Date is required")
+            .check(a -> a.getTime() != null, "Time is required")
+            .check(a -> a.getComment() == null || a.getComment().length() <= 1000, "Comment must be at most 1000 characters")
+            .get();
+    }
+
+    private LocalDate parseDate(String value) throws ApiException {
+        try {
+            return LocalDate.parse(value);
+        } catch (Exception e) {
+            throw new ApiException(400, "Invalid date format. Use: yyyy-MM-dd");
+        }
+    }
+
+    private int parseLimit(String value) throws ApiException {
+        if (value == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new ApiException(400, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid 'limit' value: " + value);
+        }
+    }
+
+    // The cursor is "date,time,id" of the last appointment on the previous page, as sent in X-Next-After
+    private AppointmentDAO.After parseAfter(String value) throws ApiException {
+        String[] parts = value.split(",");
+        try {
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            return new AppointmentDAO.After(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Integer.parseInt(parts[2]));
+        } catch (Exception e) {
+            throw new ApiException(400, "Invalid 'after' value: " + value);
+        }
+    }
+}
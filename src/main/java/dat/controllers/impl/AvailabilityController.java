@@ -0,0 +1,147 @@
+package dat.controllers.impl;
+
+import dat.config.HibernateConfig;
+import dat.daos.impl.AvailabilityDAO;
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.SlotDTO;
+import dat.enums.Speciality;
+import dat.exceptions.ApiException;
+import dat.utils.Utils;
+import io.javalin.http.Context;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Free appointment slots, answered from AvailabilityDAO's in-memory bitmaps
+ */
+public class AvailabilityController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AvailabilityController.class);
+    private static final int DEFAULT_WINDOW_DAYS = 14;
+    private static final int MAX_WINDOW_DAYS = 366;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private final AvailabilityDAO dao;
+    private final DoctorDAO doctorDAO;
+
+    public AvailabilityController() {
+        EntityManagerFactory emf = HibernateConfig.getEntityManagerFactory();
+        this.dao = AvailabilityDAO.getInstance(emf);
+        this.doctorDAO = DoctorDAO.getInstance(emf);
+    }
+
+    /**
+     * GET /api/doctors/{id}/availability?from=&to=&slot=&limit=
+     * Free slots of the doctor ordered by start. The window defaults to the next 14 days,
+     * the slot length to 15 minutes (?slot=30m, ?slot=1h).
+     */
+    public void readByDoctor(Context ctx) {
+        try {
+            int id = Utils.parseId(ctx.pathParam("id"));
+            LocalDate from = parseDate(ctx.queryParam("from"), LocalDate.now());
+            LocalDate to = parseDate(ctx.queryParam("to"), from.plusDays(DEFAULT_WINDOW_DAYS));
+            validateWindow(from, to);
+            int slotMinutes = parseSlot(ctx.queryParam("slot"));
+            int limit = parseLimit(ctx.queryParam("limit"));
+
+            if (doctorDAO.read(id) == null) {
+                throw new ApiException(404, "Doctor not found with id: " + id);
+            }
+            ctx.status(200).json(dao.freeSlots(id, from, to, slotMinutes, limit));
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "readByDoctor");
+            e.respond(ctx);
+        }
+    }
+
+    /**
+     * GET /api/doctors/speciality/{speciality}/first-free-slot?from=&to=&slot=
+     * The earliest free slot of any doctor with the speciality
+     */
+    public void firstBySpeciality(Context ctx) {
+        try {
+            Speciality speciality = DoctorControllerDB.parseSpeciality(ctx.pathParam("speciality"));
+            LocalDate from = parseDate(ctx.queryParam("from"), LocalDate.now());
+            LocalDate to = parseDate(ctx.queryParam("to"), from.plusDays(DEFAULT_WINDOW_DAYS));
+            validateWindow(from, to);
+            int slotMinutes = parseSlot(ctx.queryParam("slot"));
+
+            SlotDTO slot = dao.firstFreeSlot(speciality, from, to, slotMinutes);
+            if (slot == null) {
+                throw new ApiException(404,
+                    String.format("No free %d minute slot for speciality %s between %s and %s", slotMinutes, speciality, from, to));
+            }
+            ctx.status(200).json(slot);
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "firstBySpeciality");
+            e.respond(ctx);
+        }
+    }
+
+    private LocalDate parseDate(String value, LocalDate defaultValue) throws ApiException {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (Exception e) {
+            throw new ApiException(400, "Invalid date format. Use: yyyy-MM-dd");
+        }
+    }
+
+    private void validateWindow(LocalDate from, LocalDate to) throws ApiException {
+        if (from.isAfter(to)) {
+            throw new ApiException(400, "From date cannot be after to date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_WINDOW_DAYS) {
+            throw new ApiException(400, "Window must not exceed " + MAX_WINDOW_DAYS + " days");
+        }
+    }
+
+    // Accepts minutes as "30", "30m" or hours as "1h", in multiples of the 15 minute unit within a working day
+    private int parseSlot(String value) throws ApiException {
+        if (value == null) {
+            return AvailabilityDAO.UNIT_MINUTES;
+        }
+        int minutes;
+        try {
+            String trimmed = value.trim().toLowerCase();
+            if (trimmed.endsWith("h")) {
+                minutes = Integer.parseInt(trimmed.substring(0, trimmed.length() - 1)) * 60;
+            } else if (trimmed.endsWith("m")) {
+                minutes = Integer.parseInt(trimmed.substring(0, trimmed.length() - 1));
+            } else {
+                minutes = Integer.parseInt(trimmed);
+            }
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid slot length: " + value);
+        }
+        int maxMinutes = AvailabilityDAO.UNITS_PER_DAY * AvailabilityDAO.UNIT_MINUTES;
+        if (minutes <= 0 || minutes % AvailabilityDAO.UNIT_MINUTES != 0 || minutes > maxMinutes) {
+            throw new ApiException(400, "Slot length must be a multiple of " + AvailabilityDAO.UNIT_MINUTES
+                + " minutes, at most " + maxMinutes);
+        }
+        return minutes;
+    }
+
+    private int parseLimit(String value) throws ApiException {
+        if (value == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new ApiException(400, "Limit must be between 1 and " + MAX_LIMIT);
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid 'limit' value: " + value);
+        }
+    }
+}
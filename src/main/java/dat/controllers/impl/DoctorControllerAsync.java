@@ -0,0 +1,230 @@
+package dat.controllers.impl;
+
+import dat.config.DatabaseExecutor;
+import dat.config.HibernateConfig;
+import dat.controllers.IAsyncController;
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.DoctorDTO;
+import dat.enums.Speciality;
+import dat.exceptions.ApiException;
+import dat.exceptions.Message;
+import dat.utils.JsonResponseCache;
+import dat.utils.Utils;
+import io.javalin.http.Context;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import static dat.controllers.impl.DoctorControllerDB.*;
+
+/**
+ * Asynchronous variant of DoctorControllerDB, sharing its parsing, validation, JSON writers and response cache
+ * Requests are parsed and validated on the request thread, the DAO call runs on a DatabaseExecutor
+ * sized to the connection pool, and the response is written when the call completes. A slow database
+ * therefore fills the executor queue instead of the Jetty thread pool, and requests that wait too long
+ * or find the queue full get a 503 while cheap endpoints keep being served.
+ * Creates, updates and deletes only get that 503 before they start, see DatabaseExecutor.write, so a
+ * timed out write is never committed behind the client's back and is safe to retry.
+ */
+public class DoctorControllerAsync implements IAsyncController<DoctorDTO, Integer> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DoctorControllerAsync.class);
+    private final DoctorDAO dao;
+    private final DatabaseExecutor executor;
+    private final JsonResponseCache responseCache;
+
+    public DoctorControllerAsync(DoctorControllerDB controller) {
+        EntityManagerFactory emf = HibernateConfig.getEntityManagerFactory();
+        this.dao = DoctorDAO.getInstance(emf);
+        this.executor = DatabaseExecutor.forPool("doctors-db", emf);
+        this.responseCache = controller.responseCache;
+    }
+
+    @Override
+    public CompletableFuture<Void> read(Context ctx) {
+        try {
+            int id = Utils.parseId(ctx.pathParam("id"));
+            boolean includeAppointments = includeAppointments(ctx);
+            return respond(ctx, "read", executor.supply(() -> {
+                DoctorDTO doctor = dao.read(id, includeAppointments);
+                if (doctor == null) {
+                    throw new ApiException(404, "Doctor not found with id: " + id);
+                }
+                return doctor;
+            }), doctor -> writeJson(ctx, 200, DOCTOR_WRITER, doctor));
+        } catch (ApiException e) {
+            return fail(ctx, "read", e);
+        }
+    }
+
+    /**
+     * Returns one keyset page of doctors ordered by id, ?after= and ?limit= select the page
+     * and the X-Next-After header holds the cursor for the next one.
+     * Unlike the blocking controller there is no unpaged variant, so a request never holds
+     * an executor thread for longer than one page takes.
+     * Responses carry an ETag, a matching If-None-Match is answered with 304 without using the executor.
+     */
+    @Override
+    public CompletableFuture<Void> readAll(Context ctx) {
+        try {
+            String afterParam = ctx.queryParam("after");
+            String limitParam = ctx.queryParam("limit");
+            int after = afterParam == null ? 0 : parsePagingParam(afterParam, "after");
+            int limit = limitParam == null ? DEFAULT_PAGE_SIZE : parsePagingParam(limitParam, "limit");
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw INVALID_PAGE_LIMIT;
+            }
+            boolean includeAppointments = includeAppointments(ctx);
+            return respondCached(ctx, "readAll", headers -> {
+                List<DoctorDTO> doctors = dao.readAll(after, limit, includeAppointments);
+                if (doctors.size() == limit) {
+                    headers.put("X-Next-After", String.valueOf(doctors.get(doctors.size() - 1).getId()));
+                }
+                return doctors;
+            });
+        } catch (ApiException e) {
+            return fail(ctx, "readAll", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> create(Context ctx) {
+        try {
+            DoctorDTO doctor = parseDoctor(ctx);
+            return respond(ctx, "create", executor.write(() -> {
+                DoctorDTO created = dao.create(doctor);
+                if (created == null) {
+                    throw new ApiException(500, "Could not create doctor in database");
+                }
+                return created;
+            }), created -> writeJson(ctx, 201, DOCTOR_WRITER, created));
+        } catch (ApiException e) {
+            return fail(ctx, "create", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> update(Context ctx) {
+        try {
+            int id = Utils.parseId(ctx.pathParam("id"));
+            DoctorDTO doctor = parseDoctor(ctx);
+            return respond(ctx, "update", executor.write(() -> {
+                DoctorDTO updated = dao.update(id, doctor);
+                if (updated == null) {
+                    throw new ApiException(404, "Doctor not found with id: " + id);
+                }
+                return updated;
+            }), updated -> writeJson(ctx, 200, DOCTOR_WRITER, updated));
+        } catch (ApiException e) {
+            return fail(ctx, "update", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Context ctx) {
+        try {
+            int id = Utils.parseId(ctx.pathParam("id"));
+            return respond(ctx, "delete", executor.write(() -> {
+                if (!dao.delete(id)) {
+                    throw new ApiException(404, "Doctor not found with id: " + id);
+                }
+                return null;
+            }), ignored -> ctx.status(204));
+        } catch (ApiException e) {
+            return fail(ctx, "delete", e);
+        }
+    }
+
+    public CompletableFuture<Void> readBySpeciality(Context ctx) {
+        try {
+            Speciality speciality = parseSpeciality(ctx.pathParam("speciality"));
+            boolean includeAppointments = includeAppointments(ctx);
+            return respondCached(ctx, "readBySpeciality", headers -> {
+                List<DoctorDTO> doctors = dao.doctorBySpeciality(speciality, includeAppointments);
+                if (doctors.isEmpty()) {
+                    throw new ApiException(404, "No doctors found with speciality: " + speciality);
+                }
+                return doctors;
+            });
+        } catch (ApiException e) {
+            return fail(ctx, "readBySpeciality", e);
+        }
+    }
+
+    public CompletableFuture<Void> readByBirthdateRange(Context ctx) {
+        try {
+            String fromStr = ctx.queryParam("from");
+            String toStr = ctx.queryParam("to");
+            if (fromStr == null || toStr == null) {
+                throw new ApiException(400, "Both 'from' and 'to' dates are required");
+            }
+            LocalDate from, to;
+            try {
+                from = LocalDate.parse(fromStr);
+                to = LocalDate.parse(toStr);
+            } catch (Exception e) {
+                throw INVALID_DATE;
+            }
+            if (from.isAfter(to)) {
+                throw new ApiException(400, "From date cannot be after to date");
+            }
+            boolean includeAppointments = includeAppointments(ctx);
+            return respond(ctx, "readByBirthdateRange", executor.supply(() -> {
+                List<DoctorDTO> doctors = dao.doctorByBirthdateRange(from, to, includeAppointments);
+                if (doctors.isEmpty()) {
+                    throw new ApiException(404,
+                        String.format("No doctors found with birth dates between %s and %s", from, to));
+                }
+                return doctors;
+            }), doctors -> writeJson(ctx, 200, DOCTOR_LIST_WRITER, doctors));
+        } catch (ApiException e) {
+            return fail(ctx, "readByBirthdateRange", e);
+        }
+    }
+
+    // Writes the result once the DAO call completes, or the error if it failed or timed out.
+    // Only the completion stage touches the response, a call that timed out must not.
+    private <T> CompletableFuture<Void> respond(Context ctx, String operation, CompletableFuture<T> result, Consumer<T> writer) {
+        return result.handle((body, error) -> {
+            if (error != null) {
+                writeError(ctx, operation, error);
+            } else {
+                writer.accept(body);
+            }
+            return null;
+        });
+    }
+
+    // Tags the request on the request thread, loads the cached body on the executor and writes it when done
+    private CompletableFuture<Void> respondCached(Context ctx, String operation, JsonResponseCache.ResponseProducer producer) {
+        JsonResponseCache.Request request = responseCache.request(ctx);
+        if (responseCache.notModified(ctx, request)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return respond(ctx, operation, executor.supply(() -> responseCache.load(request, producer)),
+            response -> responseCache.write(ctx, request, response));
+    }
+
+    private CompletableFuture<Void> fail(Context ctx, String operation, ApiException e) {
+        writeError(ctx, operation, e);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void writeError(Context ctx, String operation, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ApiException e) {
+            e.log(LOGGER, operation);
+            e.respond(ctx);
+        } else {
+            LOGGER.error("Unexpected error in {}", operation, cause);
+            ctx.status(500)
+                .json(new Message(500, "Internal server error: " + cause.getMessage()));
+        }
+    }
+}
@@ -1,60 +1,83 @@
 package dat.controllers.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import dat.config.HibernateConfig;
 import dat.controllers.IController;
 import dat.daos.impl.DoctorDAO;
 import dat.dtos.DoctorDTO;
+import dat.dtos.DoctorQuery;
 import dat.enums.Speciality;
 import dat.exceptions.ApiException;
 import dat.exceptions.Message;
+import dat.utils.JsonResponseCache;
+import dat.utils.Utils;
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
 import jakarta.persistence.EntityManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 public class DoctorControllerDB implements IController<DoctorDTO, Integer> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DoctorControllerDB.class);
+    private static final ObjectMapper OBJECT_MAPPER = Utils.getObjectMapper();
+    // Resolved once instead of looking up the serializer for every response, shared with DoctorControllerAsync
+    static final ObjectWriter DOCTOR_WRITER = OBJECT_MAPPER.writerFor(DoctorDTO.class);
+    static final ObjectWriter DOCTOR_LIST_WRITER = OBJECT_MAPPER.writerFor(new TypeReference<List<DoctorDTO>>() {
+    });
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final int MAX_SEARCH_LENGTH = 100;
+    private static final Speciality[] SPECIALITIES = Speciality.values();
+    private static final String VALID_SPECIALITIES =
+        String.join(", ", Arrays.stream(SPECIALITIES).map(Enum::name).toArray(String[]::new));
+    // Client errors with fixed messages, shared as ApiExceptions carry no stack trace
+    private static final ApiException INVALID_SPECIALITY =
+        new ApiException(400, "Invalid speciality. Valid values are: " + VALID_SPECIALITIES);
+    static final ApiException INVALID_DATE = new ApiException(400, "Invalid date format. Use: yyyy-MM-dd");
+    static final ApiException INVALID_PAGE_LIMIT = new ApiException(400, "Limit must be between 1 and " + MAX_PAGE_SIZE);
     private final DoctorDAO dao;
+    // Serialized list responses, keyed by the DAO data version for ETag / If-None-Match support
+    final JsonResponseCache responseCache;
 
     public DoctorControllerDB() {
         EntityManagerFactory emf = HibernateConfig.getEntityManagerFactory();
         this.dao = DoctorDAO.getInstance(emf);
+        this.responseCache = new JsonResponseCache("doctor-responses", 500, dao::getVersion, OBJECT_MAPPER);
     }
 
     @Override
     public void read(Context ctx) {
         try {
-            // Parse and validate ID
-            String idParam = ctx.pathParam("id");
-            int id;
-            try {
-                id = Integer.parseInt(idParam);
-                if (id <= 0) {
-                    throw new ApiException(400, "ID must be a positive number");
-                }
-            } catch (NumberFormatException e) {
-                throw new ApiException(400, "Invalid ID format: " + idParam);
-            }
+            int id = Utils.parseId(ctx.pathParam("id"));
 
             // Check if doctor exists
-            DoctorDTO doctor = dao.read(id);
+            DoctorDTO doctor = dao.read(id, includeAppointments(ctx));
             if (doctor == null) {
                 throw new ApiException(404, "Doctor not found with id: " + id);
             }
 
             // Return doctor if found
-            ctx.status(200).json(doctor);
+            writeJson(ctx, 200, DOCTOR_WRITER, doctor);
 
         } catch (ApiException e) {
-            LOGGER.error("API Error in read: {}", e.getMessage());
-            ctx.status(e.getStatusCode())
-                .json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "read");
+            e.respond(ctx);
         } catch (Exception e) {
             LOGGER.error("Unexpected error in read", e);
             ctx.status(500)
@@ -62,31 +85,108 @@ public class DoctorControllerDB implements IController<DoctorDTO, Integer> {
         }
     }
 
+    /**
+     * Returns doctors ordered by id.
+     * With ?after=&limit= a single keyset page is returned, and the X-Next-After header
+     * holds the cursor for the next page. Without paging parameters the full list is
+     * streamed to the client row by row instead of being built in memory.
+     * Appointments are only included with ?include=appointments.
+     * Responses carry an ETag, a matching If-None-Match is answered with 304.
+     */
     @Override
     public void readAll(Context ctx) {
         try {
-            List<DoctorDTO> doctors = dao.readAll();
-            ctx.status(200).json(doctors);
+            String afterParam = ctx.queryParam("after");
+            String limitParam = ctx.queryParam("limit");
+
+            if (afterParam == null && limitParam == null) {
+                if (!responseCache.notModified(ctx)) {
+                    streamAll(ctx);
+                }
+                return;
+            }
+
+            int after = afterParam == null ? 0 : parsePagingParam(afterParam, "after");
+            int limit = limitParam == null ? DEFAULT_PAGE_SIZE : parsePagingParam(limitParam, "limit");
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw INVALID_PAGE_LIMIT;
+            }
+
+            boolean includeAppointments = includeAppointments(ctx);
+            responseCache.respond(ctx, headers -> {
+                List<DoctorDTO> doctors = dao.readAll(after, limit, includeAppointments);
+                if (doctors.size() == limit) {
+                    headers.put("X-Next-After", String.valueOf(doctors.get(doctors.size() - 1).getId()));
+                }
+                return doctors;
+            });
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "readAll");
+            e.respond(ctx);
         } catch (Exception e) {
             LOGGER.error("Error in readAll", e);
+            if (ctx.res().isCommitted()) {
+                // Part of the streamed array has already been sent, the status can't be changed
+                return;
+            }
             ctx.status(500)
                 .json(new Message(500, "Error fetching doctors: " + e.getMessage()));
         }
     }
 
-    @Override
-    public void create(Context ctx) {
+    /**
+     * Writes the doctors as a JSON array directly to the response output stream
+     */
+    private void streamAll(Context ctx) throws IOException {
+        ctx.status(200).contentType("application/json");
+        try (SequenceWriter writer = DOCTOR_WRITER.writeValuesAsArray(ctx.outputStream())) {
+            dao.streamAll(doctor -> {
+                try {
+                    writer.write(doctor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, includeAppointments(ctx));
+        }
+    }
+
+    /**
+     * Serializes the value straight into the response output stream, without building a String first
+     */
+    static void writeJson(Context ctx, int status, ObjectWriter writer, Object value) {
+        ctx.status(status).contentType("application/json");
         try {
-            // First try to parse the body to a DoctorDTO
-            DoctorDTO doctorDTO;
-            try {
-                doctorDTO = ctx.bodyAsClass(DoctorDTO.class);
-            } catch (Exception e) {
-                throw new ApiException(400, "Invalid request body format");
+            writer.writeValue(ctx.outputStream(), value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appointments are left out of responses unless the caller asks for them with ?include=appointments
+     */
+    static boolean includeAppointments(Context ctx) {
+        String include = ctx.queryParam("include");
+        return include != null && Arrays.asList(include.split(",")).contains("appointments");
+    }
+
+    static int parsePagingParam(String value, String name) throws ApiException {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new ApiException(400, "'" + name + "' must not be negative");
             }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid '" + name + "' value: " + value);
+        }
+    }
 
-            // Then validate all required fields
-            validateDoctorFields(doctorDTO);
+    @Override
+    public void create(Context ctx) {
+        try {
+            DoctorDTO doctorDTO = parseDoctor(ctx);
 
             // Try to create the doctor
             DoctorDTO created = dao.create(doctorDTO);
@@ -97,16 +197,15 @@ public class DoctorControllerDB implements IController<DoctorDTO, Integer> {
             }
 
             // Return successful response
-            ctx.status(201).json(created);
+            writeJson(ctx, 201, DOCTOR_WRITER, created);
 
         } catch (BadRequestResponse e) {
             LOGGER.error("Validation error in create: {}", e.getMessage());
             ctx.status(400)
                 .json(new Message(400, "Validation error: " + e.getMessage()));
         } catch (ApiException e) {
-            LOGGER.error("API Error in create: {}", e.getMessage());
-            ctx.status(e.getStatusCode())
-                .json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "create");
+            e.respond(ctx);
         } catch (Exception e) {
             LOGGER.error("Unexpected error in create", e);
             ctx.status(500)
@@ -114,7 +213,21 @@ public class DoctorControllerDB implements IController<DoctorDTO, Integer> {
         }
     }
 
-    private void validateDoctorFields(DoctorDTO doctor) throws ApiException {
+    /**
+     * Parses the request body to a DoctorDTO and validates all required fields
+     */
+    static DoctorDTO parseDoctor(Context ctx) throws ApiException {
+        DoctorDTO doctor;
+        try {
+            doctor = ctx.bodyAsClass(DoctorDTO.class);
+        } catch (Exception e) {
+            throw new ApiException(400, "Invalid request body format");
+        }
+        validateDoctorFields(doctor);
+        return doctor;
+    }
+
+    private static void validateDoctorFields(DoctorDTO doctor) throws ApiException {
         StringBuilder errors = new StringBuilder();
 
         if (doctor == null) {
@@ -145,9 +258,7 @@ public class DoctorControllerDB implements IController<DoctorDTO, Integer> {
                 Speciality.valueOf(doctor.getSpeciality().toString());
             } catch (IllegalArgumentException e) {
                 errors.append("Invalid speciality value. Valid values are: ")
-                    .append(String.join(", ", Arrays.stream(Speciality.values())
-                        .map(Enum::name)
-                        .toArray(String[]::new)))
+                    .append(VALID_SPECIALITIES)
                     .append(". ");
             }
         }
@@ -211,61 +322,178 @@ public class DoctorControllerDB implements IController<DoctorDTO, Integer> {
     @Override
     public void update(Context ctx) {
         try {
-            // Parse and validate ID
-            String idParam = ctx.pathParam("id");
-            int id;
-            try {
-                id = Integer.parseInt(idParam);
-                if (id <= 0) {
-                    throw new ApiException(400, "ID must be a positive number");
-                }
-            } catch (NumberFormatException e) {
-                throw new ApiException(400, "Invalid ID format: " + idParam);
-            }
+            int id = Utils.parseId(ctx.pathParam("id"));
 
-            // Check if doctor exists
-            if (!validatePrimaryKey(id)) {
-                throw new ApiException(404, "Doctor not found with id: " + id);
-            }
-
-            // Update doctor
+            // Update doctor, the DAO reports a missing doctor from the same transaction
             DoctorDTO doctor = validateEntity(ctx);
             DoctorDTO updated = dao.update(id, doctor);
-            ctx.status(200).json(updated);
+            if (updated == null) {
+                throw new ApiException(404, "Doctor not found with id: " + id);
+            }
+            writeJson(ctx, 200, DOCTOR_WRITER, updated);
 
         } catch (ApiException e) {
-            LOGGER.error("API Error in update: {}", e.getMessage());
-            ctx.status(e.getStatusCode())
-                .json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "update");
+            e.respond(ctx);
         }
     }
 
     public void readBySpeciality(Context ctx) {
         try {
-            String specialityStr = ctx.pathParam("speciality").toUpperCase();
-            Speciality speciality;
-            try {
-                speciality = Speciality.valueOf(specialityStr);
-            } catch (IllegalArgumentException e) {
-                throw new ApiException(400,
-                    "Invalid speciality. Valid values are: " +
-                        String.join(", ",
-                            java.util.Arrays.stream(Speciality.values())
-                                .map(Enum::name)
-                                .toArray(String[]::new)));
+            Speciality speciality = parseSpeciality(ctx.pathParam("speciality"));
+
+            boolean includeAppointments = includeAppointments(ctx);
+            responseCache.respond(ctx, headers -> {
+                List<DoctorDTO> doctors = dao.doctorBySpeciality(speciality, includeAppointments);
+                if (doctors.isEmpty()) {
+                    throw new ApiException(404, "No doctors found with speciality: " + speciality);
+                }
+                return doctors;
+            });
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "readBySpeciality");
+            e.respond(ctx);
+        }
+    }
+
+    /**
+     * GET /api/doctors/search?q=&limit= - Type-ahead over doctor and clinic names, best matches first
+     */
+    public void search(Context ctx) {
+        try {
+            String query = ctx.queryParam("q");
+            if (query == null || query.isBlank()) {
+                throw new ApiException(400, "Query parameter 'q' is required");
+            }
+            query = query.trim();
+            if (query.length() > MAX_SEARCH_LENGTH) {
+                throw new ApiException(400, "Query must not exceed " + MAX_SEARCH_LENGTH + " characters");
+            }
+            String limitParam = ctx.queryParam("limit");
+            int limit = limitParam == null ? DEFAULT_SEARCH_LIMIT : parsePagingParam(limitParam, "limit");
+            if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+                throw new ApiException(400, "Limit must be between 1 and " + MAX_SEARCH_LIMIT);
             }
 
-            List<DoctorDTO> doctors = dao.doctorBySpeciality(speciality);
-            if (doctors.isEmpty()) {
-                throw new ApiException(404, "No doctors found with speciality: " + speciality);
+            writeJson(ctx, 200, DOCTOR_LIST_WRITER, dao.search(query, limit));
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "search");
+            e.respond(ctx);
+        }
+    }
+
+    /**
+     * GET /api/doctors/query - Any combination of filters, with a sort order and a sparse field list:
+     * ?speciality=SURGERY,PEDIATRICS&bornFrom=&bornTo=&graduatedFrom=&graduatedTo=&clinic=
+     * &sort=-yearOfGraduation&fields=id,name&offset=&limit=
+     * Unset filters match every doctor, a '-' before the sort field sorts descending.
+     */
+    public void query(Context ctx) {
+        try {
+            DoctorQuery query = new DoctorQuery();
+
+            EnumSet<Speciality> specialities = EnumSet.noneOf(Speciality.class);
+            for (String value : splitParams(ctx, "speciality")) {
+                specialities.add(parseSpeciality(value));
             }
+            query.setSpecialities(specialities);
 
-            ctx.status(200).json(doctors);
+            query.setBornFrom(parseDateParam(ctx.queryParam("bornFrom")));
+            query.setBornTo(parseDateParam(ctx.queryParam("bornTo")));
+            if (query.getBornFrom() != null && query.getBornTo() != null && query.getBornFrom().isAfter(query.getBornTo())) {
+                throw new ApiException(400, "'bornFrom' cannot be after 'bornTo'");
+            }
+            query.setGraduatedFrom(parseYearParam(ctx.queryParam("graduatedFrom"), "graduatedFrom"));
+            query.setGraduatedTo(parseYearParam(ctx.queryParam("graduatedTo"), "graduatedTo"));
+            if (query.getGraduatedFrom() != null && query.getGraduatedTo() != null
+                && query.getGraduatedFrom() > query.getGraduatedTo()) {
+                throw new ApiException(400, "'graduatedFrom' cannot be after 'graduatedTo'");
+            }
+            String clinic = ctx.queryParam("clinic");
+            if (clinic != null && !clinic.isBlank()) {
+                query.setClinic(clinic.trim());
+            }
+
+            String sort = ctx.queryParam("sort");
+            if (sort != null) {
+                query.setDescending(sort.startsWith("-"));
+                query.setSort(query.isDescending() ? sort.substring(1) : sort);
+                if (!DoctorQuery.FIELDS.contains(query.getSort())) {
+                    throw new ApiException(400, "Invalid sort field. Valid values are: " + String.join(", ", DoctorQuery.FIELDS));
+                }
+            }
+            List<String> fields = splitParams(ctx, "fields");
+            if (!fields.isEmpty()) {
+                for (String field : fields) {
+                    if (!DoctorQuery.FIELDS.contains(field)) {
+                        throw new ApiException(400, "Invalid field '" + field + "'. Valid values are: " + String.join(", ", DoctorQuery.FIELDS));
+                    }
+                }
+                query.setFields(fields);
+            }
+
+            String offsetParam = ctx.queryParam("offset");
+            String limitParam = ctx.queryParam("limit");
+            query.setOffset(offsetParam == null ? 0 : parsePagingParam(offsetParam, "offset"));
+            query.setLimit(limitParam == null ? DEFAULT_PAGE_SIZE : parsePagingParam(limitParam, "limit"));
+            if (query.getLimit() < 1 || query.getLimit() > MAX_PAGE_SIZE) {
+                throw INVALID_PAGE_LIMIT;
+            }
+
+            ctx.status(200).json(dao.query(query));
 
         } catch (ApiException e) {
-            LOGGER.error("API Error in readBySpeciality: {}", e.getMessage());
-            ctx.status(e.getStatusCode())
-                .json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "query");
+            e.respond(ctx);
+        }
+    }
+
+    /**
+     * Looks up a speciality by name, ignoring case, without the IllegalArgumentException of Speciality.valueOf
+     */
+    static Speciality parseSpeciality(String value) throws ApiException {
+        for (Speciality speciality : SPECIALITIES) {
+            if (speciality.name().equalsIgnoreCase(value)) {
+                return speciality;
+            }
+        }
+        throw INVALID_SPECIALITY;
+    }
+
+    // Values of a query parameter given as a comma separated list, repeated, or both
+    private List<String> splitParams(Context ctx, String name) {
+        List<String> values = new ArrayList<>();
+        for (String param : ctx.queryParams(name)) {
+            for (String value : param.split(",")) {
+                if (!value.isBlank()) {
+                    values.add(value.trim());
+                }
+            }
+        }
+        return values;
+    }
+
+    private LocalDate parseDateParam(String value) throws ApiException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (Exception e) {
+            throw INVALID_DATE;
+        }
+    }
+
+    private Integer parseYearParam(String value, String name) throws ApiException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid '" + name + "' value: " + value);
         }
     }
 
@@ -283,25 +511,24 @@ public class DoctorControllerDB implements IController<DoctorDTO, Integer> {
                 from = LocalDate.parse(fromStr);
                 to = LocalDate.parse(toStr);
             } catch (Exception e) {
-                throw new ApiException(400, "Invalid date format. Use: yyyy-MM-dd");
+                throw INVALID_DATE;
             }
 
             if (from.isAfter(to)) {
                 throw new ApiException(400, "From date cannot be after to date");
             }
 
-            List<DoctorDTO> doctors = dao.doctorByBirthdateRange(from, to);
+            List<DoctorDTO> doctors = dao.doctorByBirthdateRange(from, to, includeAppointments(ctx));
             if (doctors.isEmpty()) {
                 throw new ApiException(404,
                     String.format("No doctors found with birth dates between %s and %s", from, to));
             }
 
-            ctx.status(200).json(doctors);
+            writeJson(ctx, 200, DOCTOR_LIST_WRITER, doctors);
 
         } catch (ApiException e) {
-            LOGGER.error("API Error in readByBirthdateRange: {}", e.getMessage());
-            ctx.status(e.getStatusCode())
-                .json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "readByBirthdateRange");
+            e.respond(ctx);
         }
     }
 
@@ -314,37 +541,115 @@ public class DoctorControllerDB implements IController<DoctorDTO, Integer> {
     @Override
     public void delete(Context ctx) {
         try {
-            // Parse and validate ID
-            String idParam = ctx.pathParam("id");
-            int id;
-            try {
-                id = Integer.parseInt(idParam);
-                if (id <= 0) {
-                    throw new ApiException(400, "ID must be a positive number");
-                }
-            } catch (NumberFormatException e) {
-                throw new ApiException(400, "Invalid ID format: " + idParam);
-            }
+            int id = Utils.parseId(ctx.pathParam("id"));
 
-            // Check if doctor exists before deletion
-            if (!validatePrimaryKey(id)) {
+            // Perform deletion, the DAO reports a missing doctor from the same transaction
+            if (!dao.delete(id)) {
                 throw new ApiException(404, "Doctor not found with id: " + id);
             }
 
-            // Perform deletion
-            dao.delete(id);
-
             // Return 204 No Content on successful deletion
             ctx.status(204);
 
         } catch (ApiException e) {
-            LOGGER.error("API Error in delete: {}", e.getMessage());
-            ctx.status(e.getStatusCode())
-                .json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "delete");
+            e.respond(ctx);
         } catch (Exception e) {
             LOGGER.error("Unexpected error in delete", e);
             ctx.status(500)
                 .json(new Message(500, "Internal server error while deleting doctor: " + e.getMessage()));
         }
     }
+
+    // POST /api/doctors/batch - Create several doctors in one transaction
+    public void createBatch(Context ctx) {
+        try {
+            List<DoctorDTO> doctors = parseBatch(ctx);
+            for (DoctorDTO doctor : doctors) {
+                doctor.setId(null);
+            }
+            writeJson(ctx, 201, DOCTOR_LIST_WRITER, dao.createAll(doctors));
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "createBatch");
+            e.respond(ctx);
+        } catch (Exception e) {
+            LOGGER.error("Unexpected error in createBatch", e);
+            ctx.status(500)
+                .json(new Message(500, "An unexpected error occurred while creating doctors"));
+        }
+    }
+
+    // PUT /api/doctors/batch - Update several doctors in one transaction, all ids must exist
+    public void updateBatch(Context ctx) {
+        try {
+            List<DoctorDTO> doctors = parseBatch(ctx);
+            for (int i = 0; i < doctors.size(); i++) {
+                Integer id = doctors.get(i).getId();
+                if (id == null || id <= 0) {
+                    throw new ApiException(400, "Doctor " + i + ": ID must be a positive number");
+                }
+            }
+            writeJson(ctx, 200, DOCTOR_LIST_WRITER, dao.updateAll(doctors));
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "updateBatch");
+            e.respond(ctx);
+        } catch (Exception e) {
+            LOGGER.error("Unexpected error in updateBatch", e);
+            ctx.status(500)
+                .json(new Message(500, "An unexpected error occurred while updating doctors"));
+        }
+    }
+
+    // DELETE /api/doctors/batch - Delete the doctors whose ids are given as a JSON array
+    public void deleteBatch(Context ctx) {
+        try {
+            Integer[] ids;
+            try {
+                ids = ctx.bodyAsClass(Integer[].class);
+            } catch (Exception e) {
+                throw new ApiException(400, "Request body must be a JSON array of ids");
+            }
+            if (ids == null || ids.length == 0 || ids.length > MAX_BATCH_SIZE) {
+                throw new ApiException(400, "Batch must contain between 1 and " + MAX_BATCH_SIZE + " ids");
+            }
+            // Checked before anything is deleted, a null id would fail the cache eviction after the commit
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == null || ids[i] <= 0) {
+                    throw new ApiException(400, "Doctor " + i + ": ID must be a positive number");
+                }
+            }
+            ctx.status(200).json(Map.of("deleted", dao.deleteAll(Arrays.asList(ids))));
+
+        } catch (ApiException e) {
+            e.log(LOGGER, "deleteBatch");
+            e.respond(ctx);
+        } catch (Exception e) {
+            LOGGER.error("Unexpected error in deleteBatch", e);
+            ctx.status(500)
+                .json(new Message(500, "Internal server error while deleting doctors: " + e.getMessage()));
+        }
+    }
+
+    // Parses a JSON array of doctors and validates every element, prefixing errors with the element index
+    private List<DoctorDTO> parseBatch(Context ctx) throws ApiException {
+        DoctorDTO[] doctors;
+        try {
+            doctors = ctx.bodyAsClass(DoctorDTO[].class);
+        } catch (Exception e) {
+            throw new ApiException(400, "Request body must be a JSON array of doctors");
+        }
+        if (doctors == null || doctors.length == 0 || doctors.length > MAX_BATCH_SIZE) {
+            throw new ApiException(400, "Batch must contain between 1 and " + MAX_BATCH_SIZE + " doctors");
+        }
+        for (int i = 0; i < doctors.length; i++) {
+            try {
+                validateDoctorFields(doctors[i]);
+            } catch (ApiException e) {
+                throw new ApiException(400, "Doctor " + i + ": " + e.getMessage());
+            }
+        }
+        return Arrays.asList(doctors);
+    }
 }
@@ -7,6 +7,7 @@ import dat.dtos.DoctorDTO;
 import dat.enums.Speciality;
 import dat.exceptions.ApiException;
 import dat.exceptions.Message;
+import dat.utils.Utils;
 import io.javalin.http.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +26,10 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
     private static final Logger LOGGER = LoggerFactory.getLogger(DoctorMockController.class);
     private final DoctorMockDAO dao;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_DATE;
+    private static final Speciality[] SPECIALITIES = Speciality.values();
+    // Client errors with fixed messages, shared as ApiExceptions carry no stack trace
+    private static final ApiException INVALID_SPECIALITY =
+        new ApiException(400, "Invalid speciality. Valid values are: " + Arrays.toString(SPECIALITIES));
 
     // Initialize controller with DAO instance
     public DoctorMockController() {
@@ -40,18 +45,8 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
     @Override
     public void read(Context ctx) {
         try {
-            // Parse and validate ID with better error handling
-            String idParam = ctx.pathParam("id");
-            int id;
-
-            try {
-                id = Integer.parseInt(idParam);
-                if (id <= 0) {
-                    throw new ApiException(400, "ID must be a positive number");
-                }
-            } catch (NumberFormatException e) {
-                throw new ApiException(400, "Invalid ID format: " + idParam);
-            }
+            // Parse and validate ID
+            int id = Utils.parseId(ctx.pathParam("id"));
 
             DoctorDTO doctorDTO = dao.read(id);
             if (doctorDTO == null) {
@@ -60,9 +55,8 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
 
             ctx.json(doctorDTO);
         } catch (ApiException e) {
-            LOGGER.error("API Error in read: {}", e.getMessage());
-            ctx.status(e.getStatusCode());
-            ctx.json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "read");
+            e.respond(ctx);
         } catch (Exception e) {
             LOGGER.error("Unexpected error in read", e);
             ctx.status(500);
@@ -134,8 +128,7 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
 
         } catch (ApiException e) {
             // Handle our custom API exceptions with 400 status
-            ctx.status(e.getStatusCode());
-            ctx.json(new Message(e.getStatusCode(), e.getMessage()));
+            e.respond(ctx);
         }
     }
     /**
@@ -173,9 +166,8 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
             ctx.json(result);
 
         } catch (ApiException e) {
-            LOGGER.error("API Error in update: {}", e.getMessage());
-            ctx.status(e.getStatusCode());
-            ctx.json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "update");
+            e.respond(ctx);
         } catch (Exception e) {
             LOGGER.error("Unexpected error in update", e);
             ctx.status(500);
@@ -203,8 +195,7 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
             dao.delete(id);
             ctx.status(204);
         } catch (ApiException e) {
-            ctx.status(e.getStatusCode());
-            ctx.json(new Message(e.getStatusCode(), e.getMessage()));
+            e.respond(ctx);
         }
     }
 
@@ -216,14 +207,16 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
      */
     public void readBySpeciality(Context ctx) {
         try {
-            String specialityStr = ctx.pathParam("speciality").toUpperCase();
-            Speciality speciality;
-
-            try {
-                speciality = Speciality.valueOf(specialityStr);
-            } catch (IllegalArgumentException e) {
-                String validSpecialities = Arrays.toString(Speciality.values());
-                throw new ApiException(400, "Invalid speciality. Valid values are: " + validSpecialities);
+            String specialityStr = ctx.pathParam("speciality");
+            Speciality speciality = null;
+            for (Speciality candidate : SPECIALITIES) {
+                if (candidate.name().equalsIgnoreCase(specialityStr)) {
+                    speciality = candidate;
+                    break;
+                }
+            }
+            if (speciality == null) {
+                throw INVALID_SPECIALITY;
             }
 
             List<DoctorDTO> doctors = dao.doctorBySpeciality(speciality);
@@ -233,9 +226,8 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
 
             ctx.json(doctors);
         } catch (ApiException e) {
-            LOGGER.error("API Error in readBySpeciality: {}", e.getMessage());
-            ctx.status(e.getStatusCode());
-            ctx.json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "readBySpeciality");
+            e.respond(ctx);
         } catch (Exception e) {
             LOGGER.error("Unexpected error in readBySpeciality", e);
             ctx.status(500);
@@ -247,8 +239,8 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
     /**
      * Finds doctors born within a specific date range
      *
-     * @param ctx Javalin context containing the date range parameters
-     * @throws ApiException with 400 if date range is invalid
+     * @param ctx Javalin context containing the date range parameters and an optional limit
+     * @throws ApiException with 400 if date range or limit is invalid
      * @throws ApiException with 404 if no doctors found in range
      */
     public void readByBirthdateRange(Context ctx) {
@@ -273,16 +265,29 @@ public class DoctorMockController implements IController<DoctorDTO, Integer> {
                 throw new ApiException(400, "From date cannot be after to date");
             }
 
-            List<DoctorDTO> doctors = dao.doctorByBirthdateRange(fromDate, toDate);
+            // Optional cap on the number of doctors returned
+            int limit = Integer.MAX_VALUE;
+            String limitStr = ctx.queryParam("limit");
+            if (limitStr != null) {
+                try {
+                    limit = Integer.parseInt(limitStr);
+                } catch (NumberFormatException e) {
+                    throw new ApiException(400, "Invalid limit: " + limitStr);
+                }
+                if (limit <= 0) {
+                    throw new ApiException(400, "Limit must be a positive number");
+                }
+            }
+
+            List<DoctorDTO> doctors = dao.doctorByBirthdateRange(fromDate, toDate, limit);
             if (doctors.isEmpty()) {
                 throw new ApiException(404, String.format("No doctors found with birth dates between %s and %s", fromDate, toDate));
             }
 
             ctx.json(doctors);
         } catch (ApiException e) {
-            LOGGER.error("API Error in readByBirthdateRange: {}", e.getMessage());
-            ctx.status(e.getStatusCode());
-            ctx.json(new Message(e.getStatusCode(), e.getMessage()));
+            e.log(LOGGER, "readByBirthdateRange");
+            e.respond(ctx);
         } catch (Exception e) {
             LOGGER.error("Unexpected error in readByBirthdateRange", e);
             ctx.status(500);
@@ -11,7 +11,12 @@ public class ExceptionController {
     private final Logger LOGGER = LoggerFactory.getLogger(Routes.class);
 
     public void apiExceptionHandler(ApiException e, Context ctx) {
-        LOGGER.error(ctx.attribute("requestInfo") + " " + ctx.res().getStatus() + " " + e.getMessage());
+        // Client errors are routine, see ApiException.log
+        if (e.isClientError()) {
+            LOGGER.info("{} {} {}", ctx.attribute("requestInfo"), e.getStatusCode(), e.getMessage());
+        } else {
+            LOGGER.error("{} {} {}", ctx.attribute("requestInfo"), e.getStatusCode(), e.getMessage());
+        }
         ctx.status(e.getStatusCode());
         ctx.json(new Message(e.getStatusCode(), e.getMessage()));
     }
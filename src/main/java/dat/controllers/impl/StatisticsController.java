@@ -0,0 +1,116 @@
+package dat.controllers.impl;
+
+import dat.config.ConnectionPoolMetrics;
+import dat.config.DaoMetrics;
+import dat.config.HibernateConfig;
+import dat.config.RequestMetrics;
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.CacheStatisticsDTO;
+import dat.exceptions.Message;
+import dat.utils.LoadingCache;
+import io.javalin.http.Context;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exposes runtime statistics used to size caches and tune the database layer
+ */
+public class StatisticsController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsController.class);
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final List<String> ENTITY_REGIONS = List.of("doctors", "appointments", "doctor-appointments");
+    private final DoctorDAO doctorDAO = DoctorDAO.getInstance(HibernateConfig.getEntityManagerFactory());
+
+    /**
+     * Returns hit, miss, put and eviction counts for every Hibernate cache region and DTO cache
+     * @param ctx Javalin context for returning the response
+     */
+    public void cacheStatistics(Context ctx) {
+        Statistics statistics = HibernateConfig.getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+
+        List<CacheStatisticsDTO> regions = new ArrayList<>();
+        for (String region : ENTITY_REGIONS) {
+            regions.add(toDTO(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        regions.add(toDTO(DoctorDAO.QUERY_CACHE_REGION, statistics.getQueryRegionStatistics(DoctorDAO.QUERY_CACHE_REGION)));
+        for (LoadingCache<?, ?> cache : doctorDAO.getDtoCaches()) {
+            regions.add(toDTO(cache));
+        }
+
+        ctx.status(200).json(regions);
+    }
+
+    /**
+     * Returns active, idle and pending connections of the HikariCP pool along with acquire latency
+     * @param ctx Javalin context for returning the response
+     */
+    public void poolStatistics(Context ctx) {
+        ConnectionPoolMetrics metrics = ConnectionPoolMetrics.of(HibernateConfig.getEntityManagerFactory());
+        if (metrics == null) {
+            ctx.status(404).json(new Message(404, "No connection pool metrics available"));
+            return;
+        }
+        ctx.status(200).json(metrics.snapshot());
+    }
+
+    /**
+     * Returns request counts, status classes and latency quantiles per route, and phase timings of the
+     * DAO operations behind them, in the Prometheus text format
+     * @param ctx Javalin context for returning the response
+     */
+    public void metrics(Context ctx) {
+        StringBuilder out = new StringBuilder(8192);
+        RequestMetrics.getInstance().writePrometheus(out);
+        DaoMetrics.getInstance().writePrometheus(out);
+        ctx.status(200).contentType(PROMETHEUS_CONTENT_TYPE).result(out.toString());
+    }
+
+    private CacheStatisticsDTO toDTO(String region, CacheRegionStatistics stats) {
+        if (stats == null) {
+            // Query regions only exist once a cacheable query has run
+            return new CacheStatisticsDTO(region, 0, 0, 0, evictions(region), 0);
+        }
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        return new CacheStatisticsDTO(region, hits, misses, stats.getPutCount(), evictions(region), hitRatio);
+    }
+
+    private CacheStatisticsDTO toDTO(LoadingCache<?, ?> cache) {
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        return new CacheStatisticsDTO(cache.getName(), hits, misses, cache.getPutCount(), cache.getEvictionCount(), hitRatio);
+    }
+
+    /**
+     * Evictions are only tracked by the cache provider, read them from its JCache statistics MBean
+     */
+    private long evictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += (Long) server.getAttribute(name, "CacheEvictions");
+            }
+            return evictions;
+        } catch (Exception e) {
+            LOGGER.warn("Could not read eviction count for cache region {}: {}", region, e.getMessage());
+            return 0;
+        }
+    }
+}
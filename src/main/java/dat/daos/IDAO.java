@@ -12,9 +12,15 @@ public interface IDAO<T, ID> {
     // Basic CRUD operations
     T read(ID id);
     List<T> readAll();
+    List<T> readAll(ID after, int limit); // Keyset pagination: next `limit` rows with id > after
     T create(T t) throws ApiException;
     T update(ID id, T t) throws ApiException;
-    void delete(ID id);
+    boolean delete(ID id) throws ApiException; // false if nothing had the given id
+
+    // Bulk operations, each runs as a single transaction
+    List<T> createAll(List<T> ts) throws ApiException;
+    List<T> updateAll(List<T> ts) throws ApiException; // Every item carries the id it updates
+    int deleteAll(List<ID> ids);
 
     // Validation
     boolean validatePrimaryKey(ID id);
@@ -0,0 +1,199 @@
+package dat.daos.impl;
+
+import dat.dtos.AppointmentDTO;
+import dat.entities.Appointment;
+import dat.entities.Doctor;
+import dat.exceptions.ApiException;
+import dat.utils.StripedLock;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+import lombok.NoArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Database DAO for appointments, independent of loading their doctor.
+ * A doctor's schedule is read in (date, time, id) order with a projection that is served by the
+ * (doctor_id, date, time) index, one keyset page at a time. Writes evict the doctor's cached
+ * appointment collection and DTOs through DoctorDAO, so doctors read with appointments stay current,
+ * and update the doctor's availability bitmaps in AvailabilityDAO.
+ */
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class AppointmentDAO {
+
+    private static final String SUMMARY_SELECT =
+        "SELECT new dat.dtos.AppointmentDTO(a.id, a.doctor.id, a.clientName, a.date, a.time, a.comment) FROM Appointment a";
+
+    // Serializes bookings per doctor, 64 stripes are plenty for a connection pool of a few dozen
+    private static final StripedLock bookingLocks = new StripedLock(64);
+
+    private static AppointmentDAO instance;
+    private static EntityManagerFactory emf;
+    private static DoctorDAO doctorDAO;
+
+    /**
+     * Position in a doctor's schedule, the next page starts with the first appointment after it
+     */
+    public record After(LocalDate date, LocalTime time, int id) {
+    }
+
+    public static AppointmentDAO getInstance(EntityManagerFactory _emf) {
+        if (instance == null) {
+            emf = _emf;
+            doctorDAO = DoctorDAO.getInstance(_emf);
+            instance = new AppointmentDAO();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the appointment, or null if no appointment has the given id
+     */
+    public AppointmentDTO read(Integer id) {
+        try (EntityManager em = emf.createEntityManager()) {
+            Appointment appointment = em.find(Appointment.class, id);
+            return appointment != null ? new AppointmentDTO(appointment) : null;
+        }
+    }
+
+    /**
+     * Returns up to limit appointments of the doctor dated from..to (inclusive), ordered by date, time and id
+     * @param after the last appointment of the previous page, or null for the first page
+     */
+    public List<AppointmentDTO> readByDoctor(Integer doctorId, LocalDate from, LocalDate to, After after, int limit) {
+        try (EntityManager em = emf.createEntityManager()) {
+            String where = " WHERE a.doctor.id = :doctorId AND a.date BETWEEN :from AND :to";
+            if (after != null) {
+                where += " AND (a.date > :afterDate OR (a.date = :afterDate"
+                    + " AND (a.time > :afterTime OR (a.time = :afterTime AND a.id > :afterId))))";
+                // Start the index range scan at the cursor instead of at the start of the window
+                if (after.date().isAfter(from)) {
+                    from = after.date();
+                }
+            }
+            TypedQuery<AppointmentDTO> query = em.createQuery(
+                SUMMARY_SELECT + where + " ORDER BY a.date, a.time, a.id", AppointmentDTO.class);
+            query.setParameter("doctorId", doctorId);
+            query.setParameter("from", from);
+            query.setParameter("to", to);
+            if (after != null) {
+                query.setParameter("afterDate", after.date());
+                query.setParameter("afterTime", after.time());
+                query.setParameter("afterId", after.id());
+            }
+            query.setMaxResults(limit);
+            return query.getResultList();
+        }
+    }
+
+    /**
+     * Books the appointment for the doctor.
+     * Bookings for the same doctor are serialized by a striped lock and check the slot before inserting,
+     * so a conflict in this process is answered without a failed insert. The unique constraint on
+     * (doctor_id, date, time) still catches conflicts with other application instances.
+     * @return the created appointment, or null if no doctor has the given id, or it was deleted during the booking
+     * @throws ApiException 409 if the doctor already has an appointment at that date and time
+     */
+    public AppointmentDTO create(Integer doctorId, AppointmentDTO appointmentDTO) throws ApiException {
+        Appointment appointment;
+        ReentrantLock lock = bookingLocks.get(doctorId);
+        lock.lock();
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            Doctor doctor = em.find(Doctor.class, doctorId);
+            if (doctor == null) {
+                em.getTransaction().rollback();
+                return null;
+            }
+            if (isBooked(em, doctorId, appointmentDTO.getDate(), appointmentDTO.getTime())) {
+                em.getTransaction().rollback();
+                throw slotTaken(doctorId, appointmentDTO);
+            }
+            appointment = new Appointment(appointmentDTO);
+            // Not added to doctor.getAppointments(), which would load the whole collection
+            appointment.setDoctor(doctor);
+            em.persist(appointment);
+            try {
+                em.flush();
+            } catch (PersistenceException e) {
+                em.getTransaction().rollback();
+                if (violates(e, Appointment.UNIQUE_SLOT)) {
+                    throw slotTaken(doctorId, appointmentDTO);
+                }
+                // The doctor was deleted after the find, answered like a doctor that was never there
+                if (violates(e, Appointment.DOCTOR_FOREIGN_KEY)) {
+                    return null;
+                }
+                throw e;
+            }
+            em.getTransaction().commit();
+        } finally {
+            lock.unlock();
+        }
+        doctorDAO.appointmentsChanged(doctorId);
+        AvailabilityDAO.booked(doctorId, appointment.getDate(), appointment.getTime());
+        return new AppointmentDTO(appointment);
+    }
+
+    private static boolean isBooked(EntityManager em, Integer doctorId, LocalDate date, LocalTime time) {
+        return em.createQuery("SELECT COUNT(a) FROM Appointment a"
+                + " WHERE a.doctor.id = :doctorId AND a.date = :date AND a.time = :time", Long.class)
+            .setParameter("doctorId", doctorId)
+            .setParameter("date", date)
+            .setParameter("time", time)
+            .getSingleResult() > 0;
+    }
+
+    private static boolean violates(Throwable e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                && constraint.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ApiException slotTaken(Integer doctorId, AppointmentDTO appointmentDTO) {
+        return new ApiException(409, String.format("Doctor %d already has an appointment on %s at %s",
+            doctorId, appointmentDTO.getDate(), appointmentDTO.getTime()));
+    }
+
+    /**
+     * Cancels the appointment, removing it from the doctor's schedule
+     * @return false if no appointment has the given id
+     */
+    public boolean cancel(Integer id) {
+        Integer doctorId;
+        LocalDate date;
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            Appointment appointment = em.find(Appointment.class, id);
+            if (appointment == null) {
+                em.getTransaction().rollback();
+                return false;
+            }
+            doctorId = appointment.getDoctor().getId();
+            date = appointment.getDate();
+            em.remove(appointment);
+            try {
+                em.flush();
+            } catch (OptimisticLockException e) {
+                // Cancelled by a concurrent request since our find
+                em.getTransaction().rollback();
+                return false;
+            }
+            em.getTransaction().commit();
+        }
+        doctorDAO.appointmentsChanged(doctorId);
+        AvailabilityDAO.cancelled(doctorId, date);
+        return true;
+    }
+}
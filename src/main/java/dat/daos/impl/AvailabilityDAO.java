@@ -0,0 +1,354 @@
+package dat.daos.impl;
+
+import dat.dtos.DoctorDTO;
+import dat.dtos.SlotDTO;
+import dat.enums.Speciality;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Free appointment slots computed from in-memory bitmaps.
+ * Working hours are split into 15 minute units, and each doctor keeps one long per day with a bit set for
+ * every unit that holds an appointment, so a day's free slots are found with a few shifts and masks.
+ * A doctor's bitmaps are loaded from the future appointments on first use, then kept current by
+ * AppointmentDAO, which sets the bit of a booking and reloads the day of a cancellation.
+ * At most MAX_SCHEDULES doctors are kept, the least recently used one is dropped and loaded again when needed.
+ * Slots of several units start at multiples of their length from opening time, e.g. 30 minute slots on the hour and half hour.
+ */
+@NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class AvailabilityDAO {
+
+    public static final int UNIT_MINUTES = 15;
+    public static final LocalTime OPENING = LocalTime.of(8, 0);
+    public static final LocalTime CLOSING = LocalTime.of(16, 0);
+    // Working hours must fit in the 64 bits of a day
+    public static final int UNITS_PER_DAY = (CLOSING.toSecondOfDay() - OPENING.toSecondOfDay()) / 60 / UNIT_MINUTES;
+    private static final long WORKING_DAY = UNITS_PER_DAY == 64 ? -1L : (1L << UNITS_PER_DAY) - 1;
+
+    private static final int MAX_SCHEDULES = 10_000;
+
+    // Guards schedules and loads. A write marks the loads of its doctor and looks up the doctor's schedule
+    // under it, and a load stores under it, so a write either marks the load, which is then not kept,
+    // or finds the stored schedule.
+    private static final Object storeLock = new Object();
+    // Access ordered, so the eldest entry is the least recently used doctor
+    private static final Map<Integer, Schedule> schedules = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Schedule> eldest) {
+            return size() > MAX_SCHEDULES;
+        }
+    };
+    private static final Set<Load> loads = new HashSet<>();
+
+    private static AvailabilityDAO instance;
+    private static EntityManagerFactory emf;
+    private static DoctorDAO doctorDAO;
+
+    /**
+     * Booked units per day of one doctor, keyed by epoch day. Days without appointments have no entry.
+     * Writes are synchronized on the schedule, reads are lock-free.
+     */
+    private static final class Schedule {
+        private final NavigableMap<Long, Long> booked = new ConcurrentSkipListMap<>();
+
+        long bookedUnits(long day) {
+            Long units = booked.get(day);
+            return units == null ? 0L : units;
+        }
+
+        synchronized void book(long day, long unit) {
+            booked.merge(day, unit, (a, b) -> a | b);
+        }
+
+        synchronized void replaceDay(long day, long units) {
+            if (units == 0L) {
+                booked.remove(day);
+            } else {
+                booked.put(day, units);
+            }
+        }
+    }
+
+    // A load of schedules in progress, told which of its doctors got a booking or cancellation meanwhile
+    private static final class Load {
+        private final Set<Integer> doctorIds;
+        private final Set<Integer> written = new HashSet<>();
+        private boolean cleared;
+
+        Load(List<Integer> doctorIds) {
+            this.doctorIds = new HashSet<>(doctorIds);
+        }
+    }
+
+    public static AvailabilityDAO getInstance(EntityManagerFactory _emf) {
+        if (instance == null) {
+            emf = _emf;
+            doctorDAO = DoctorDAO.getInstance(_emf);
+            instance = new AvailabilityDAO();
+        }
+        return instance;
+    }
+
+    /**
+     * Free slots of the given length for the doctor, from..to inclusive, ordered by start, at most limit of them.
+     * Working days are Monday to Friday, and slots that have already started are never returned.
+     */
+    public List<SlotDTO> freeSlots(Integer doctorId, LocalDate from, LocalDate to, int slotMinutes, int limit) {
+        Schedule schedule = schedule(doctorId);
+        int slotUnits = slotMinutes / UNIT_MINUTES;
+        List<SlotDTO> slots = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDate date = start(from, now); !date.isAfter(to) && slots.size() < limit; date = date.plusDays(1)) {
+            long starts = slotStarts(schedule, date, slotUnits, now);
+            while (starts != 0L && slots.size() < limit) {
+                int unit = Long.numberOfTrailingZeros(starts);
+                slots.add(new SlotDTO(doctorId, date, startTime(unit), slotMinutes));
+                starts &= starts - 1;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * The earliest free slot of the given length among all doctors with the speciality, from..to inclusive
+     * @return the slot, or null if no doctor has one
+     */
+    public SlotDTO firstFreeSlot(Speciality speciality, LocalDate from, LocalDate to, int slotMinutes) {
+        List<Integer> doctorIds = doctorDAO.doctorBySpeciality(speciality).stream()
+            .map(DoctorDTO::getId)
+            .collect(Collectors.toList());
+        Map<Integer, Schedule> doctorSchedules = schedules(doctorIds);
+        int slotUnits = slotMinutes / UNIT_MINUTES;
+        LocalDateTime now = LocalDateTime.now();
+        // Day by day, so the scan stops at the first day on which any doctor is free
+        for (LocalDate date = start(from, now); !date.isAfter(to); date = date.plusDays(1)) {
+            int bestUnit = Integer.MAX_VALUE;
+            Integer bestDoctor = null;
+            for (Integer doctorId : doctorIds) {
+                long starts = slotStarts(doctorSchedules.get(doctorId), date, slotUnits, now);
+                if (starts != 0L && Long.numberOfTrailingZeros(starts) < bestUnit) {
+                    bestUnit = Long.numberOfTrailingZeros(starts);
+                    bestDoctor = doctorId;
+                }
+            }
+            if (bestDoctor != null) {
+                return new SlotDTO(bestDoctor, date, startTime(bestUnit), slotMinutes);
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate start(LocalDate from, LocalDateTime now) {
+        // Slots in the past can't be booked and are not loaded
+        return from.isBefore(now.toLocalDate()) ? now.toLocalDate() : from;
+    }
+
+    // Bit i is set if a free slot of slotUnits starts at unit i of the day
+    private static long slotStarts(Schedule schedule, LocalDate date, int slotUnits, LocalDateTime now) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+            return 0L;
+        }
+        long free = WORKING_DAY & ~schedule.bookedUnits(date.toEpochDay());
+        if (date.equals(now.toLocalDate())) {
+            free &= ~unitsStartedBefore(now.toLocalTime());
+        }
+        // A start stays set only if the following slotUnits - 1 units are free as well
+        long starts = free;
+        for (int i = 1; i < slotUnits; i++) {
+            starts &= free >>> i;
+        }
+        return starts & alignedStarts(slotUnits);
+    }
+
+    private static long unitsStartedBefore(LocalTime time) {
+        if (!time.isAfter(OPENING)) {
+            return 0L;
+        }
+        int minutes = (time.toSecondOfDay() - OPENING.toSecondOfDay() + 59) / 60;
+        int units = Math.min(UNITS_PER_DAY, (minutes + UNIT_MINUTES - 1) / UNIT_MINUTES);
+        return units == 64 ? -1L : (1L << units) - 1;
+    }
+
+    private static long alignedStarts(int slotUnits) {
+        long mask = 0L;
+        for (int unit = 0; unit + slotUnits <= UNITS_PER_DAY; unit += slotUnits) {
+            mask |= 1L << unit;
+        }
+        return mask;
+    }
+
+    private static LocalTime startTime(int unit) {
+        return OPENING.plusMinutes((long) unit * UNIT_MINUTES);
+    }
+
+    // Unit of the working day that holds the time, or -1 outside working hours
+    private static int unitOf(LocalTime time) {
+        if (time.isBefore(OPENING) || !time.isBefore(CLOSING)) {
+            return -1;
+        }
+        return (time.toSecondOfDay() - OPENING.toSecondOfDay()) / 60 / UNIT_MINUTES;
+    }
+
+    private Schedule schedule(Integer doctorId) {
+        Schedule schedule = stored(doctorId);
+        return schedule != null ? schedule : schedules(List.of(doctorId)).get(doctorId);
+    }
+
+    private static Schedule stored(Integer doctorId) {
+        synchronized (storeLock) {
+            return schedules.get(doctorId);
+        }
+    }
+
+    /**
+     * Returns the schedules of the doctors, loading the missing ones with a single query
+     */
+    private Map<Integer, Schedule> schedules(List<Integer> doctorIds) {
+        Map<Integer, Schedule> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        synchronized (storeLock) {
+            for (Integer doctorId : doctorIds) {
+                Schedule schedule = schedules.get(doctorId);
+                if (schedule != null) {
+                    result.put(doctorId, schedule);
+                } else {
+                    missing.add(doctorId);
+                    result.put(doctorId, new Schedule());
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Load load = new Load(missing);
+        synchronized (storeLock) {
+            loads.add(load);
+        }
+        try (EntityManager em = emf.createEntityManager()) {
+            for (int i = 0; i < missing.size(); i += 1000) {
+                em.createQuery("SELECT a.doctor.id, a.date, a.time FROM Appointment a"
+                        + " WHERE a.doctor.id IN :ids AND a.date >= :today", Object[].class)
+                    .setParameter("ids", missing.subList(i, Math.min(i + 1000, missing.size())))
+                    .setParameter("today", LocalDate.now())
+                    .getResultList()
+                    .forEach(row -> {
+                        int unit = unitOf((LocalTime) row[2]);
+                        if (unit >= 0) {
+                            result.get((Integer) row[0]).book(((LocalDate) row[1]).toEpochDay(), 1L << unit);
+                        }
+                    });
+            }
+        } catch (RuntimeException e) {
+            synchronized (storeLock) {
+                loads.remove(load);
+            }
+            throw e;
+        }
+        // Like LoadingCache, the schedule of a doctor written during the load is returned to the caller but not stored
+        synchronized (storeLock) {
+            loads.remove(load);
+            if (!load.cleared) {
+                for (Integer doctorId : missing) {
+                    if (!load.written.contains(doctorId)) {
+                        schedules.putIfAbsent(doctorId, result.get(doctorId));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the unit of a new appointment as booked, called by AppointmentDAO after it commits
+     */
+    static void booked(Integer doctorId, LocalDate date, LocalTime time) {
+        Schedule schedule = written(doctorId);
+        int unit = unitOf(time);
+        if (schedule != null && unit >= 0) {
+            schedule.book(date.toEpochDay(), 1L << unit);
+        }
+    }
+
+    /**
+     * Reloads the day of a cancelled appointment, other appointments may share its unit
+     */
+    static void cancelled(Integer doctorId, LocalDate date) {
+        Schedule schedule = written(doctorId);
+        if (schedule == null) {
+            return;
+        }
+        // Synchronized so a booking on the same day can't be lost between the query and the replace
+        synchronized (schedule) {
+            long units = 0L;
+            try (EntityManager em = emf.createEntityManager()) {
+                List<LocalTime> times = em.createQuery(
+                        "SELECT a.time FROM Appointment a WHERE a.doctor.id = :doctorId AND a.date = :date", LocalTime.class)
+                    .setParameter("doctorId", doctorId)
+                    .setParameter("date", date)
+                    .getResultList();
+                for (LocalTime time : times) {
+                    int unit = unitOf(time);
+                    if (unit >= 0) {
+                        units |= 1L << unit;
+                    }
+                }
+            }
+            schedule.replaceDay(date.toEpochDay(), units);
+        }
+    }
+
+    // Marks the loads of the doctor as overlapping a write and returns the doctor's stored schedule, if any
+    private static Schedule written(Integer doctorId) {
+        synchronized (storeLock) {
+            markLoads(doctorId);
+            return schedules.get(doctorId);
+        }
+    }
+
+    // Guarded by storeLock
+    private static void markLoads(Integer doctorId) {
+        for (Load load : loads) {
+            if (load.doctorIds.contains(doctorId)) {
+                load.written.add(doctorId);
+            }
+        }
+    }
+
+    /**
+     * Drops the bitmaps of a deleted doctor
+     */
+    static void forget(Integer doctorId) {
+        synchronized (storeLock) {
+            markLoads(doctorId);
+            schedules.remove(doctorId);
+        }
+    }
+
+    /**
+     * Drops every bitmap, for use after appointments were changed outside AppointmentDAO
+     */
+    static void clear() {
+        synchronized (storeLock) {
+            loads.forEach(load -> load.cleared = true);
+            schedules.clear();
+        }
+    }
+}
@@ -1,21 +1,88 @@
 package dat.daos.impl;
 
+import dat.config.DaoMetrics;
+import dat.config.HibernateConfig;
 import dat.daos.IDAO;
+import dat.dtos.AppointmentDTO;
 import dat.dtos.DoctorDTO;
+import dat.dtos.DoctorQuery;
+import dat.entities.Appointment;
 import dat.entities.Doctor;
 import dat.enums.Speciality;
+import dat.exceptions.ApiException;
+import dat.utils.LoadingCache;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import lombok.NoArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.Cache;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Database DAO for doctors.
+ * Methods return summary DTOs built from a column projection that never touches the
+ * appointments table. The overloads taking includeAppointments fetch the appointments
+ * in the same statement instead, through the Doctor.WITH_APPOINTMENTS graph or a JOIN FETCH.
+ * Built DTOs for single doctors and per-speciality lists are cached, and evicted by the
+ * writes in this class that affect them.
+ */
 @NoArgsConstructor(access = lombok.AccessLevel.PRIVATE)
 public class DoctorDAO implements IDAO<DoctorDTO, Integer> {
 
+    // Rows fetched per round-trip while streaming, and doctors per appointment lookup
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int MAX_IN_LIST_SIZE = 1000;
+    private static final int MAX_DELETE_ATTEMPTS = 3;
+
+    private static final String SUMMARY_SELECT =
+        "SELECT new dat.dtos.DoctorDTO(d.id, d.name, d.dateOfBirth, d.yearOfGraduation, d.nameOfClinic, d.speciality) FROM Doctor d";
+    private static final String FETCH_SELECT =
+        "SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.appointments";
+    // Query cache region for lookup results, invalidated by Hibernate on any write to doctors
+    public static final String QUERY_CACHE_REGION = "doctor-queries";
+
+    private static final LoadingCache<Integer, DoctorDTO> doctorCache =
+        new LoadingCache<>("doctor-dtos", 10_000, Duration.ofMinutes(10));
+    private static final LoadingCache<Integer, DoctorDTO> doctorWithAppointmentsCache =
+        new LoadingCache<>("doctor-dtos-with-appointments", 1_000, Duration.ofMinutes(2));
+    private static final LoadingCache<Speciality, List<DoctorDTO>> specialityCache =
+        new LoadingCache<>("speciality-dtos", Speciality.values().length, Duration.ofMinutes(5));
+
+    // Type-ahead index over names and clinics, see search()
+    private static final DoctorSearchIndex searchIndex = new DoctorSearchIndex();
+
+    // Bumped after every committed write; seeded with the start time so versions differ across restarts
+    private static final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    // Phase timings and statement counts per operation, see DaoMetrics
+    private static final DaoMetrics metrics = DaoMetrics.getInstance();
+
     private static DoctorDAO instance;
     private static EntityManagerFactory emf;
 
@@ -29,83 +96,601 @@ public class DoctorDAO implements IDAO<DoctorDTO, Integer> {
 
     @Override
     public DoctorDTO read(Integer id) {
-        try (EntityManager em = emf.createEntityManager()) {
-            Doctor doctor = em.find(Doctor.class, id);
-            return doctor != null ? new DoctorDTO(doctor) : null;
+        return read(id, false);
+    }
+
+    public DoctorDTO read(Integer id, boolean includeAppointments) {
+        return includeAppointments
+            ? doctorWithAppointmentsCache.get(id, key -> load(key, true))
+            : doctorCache.get(id, key -> load(key, false));
+    }
+
+    private DoctorDTO load(Integer id, boolean includeAppointments) {
+        try (DaoMetrics.Operation op = metrics.start(includeAppointments ? "readWithAppointments" : "read", emf)) {
+            EntityManager em = op.entityManager();
+            Map<String, Object> hints = includeAppointments
+                ? Map.of("jakarta.persistence.fetchgraph", em.getEntityGraph(Doctor.WITH_APPOINTMENTS))
+                : Map.of();
+            Doctor doctor = em.find(Doctor.class, id, hints);
+            op.fetched(doctor != null ? 1 : 0);
+            return doctor != null ? new DoctorDTO(doctor, includeAppointments) : null;
         }
     }
 
     @Override
     public List<DoctorDTO> readAll() {
-        try (EntityManager em = emf.createEntityManager()) {
-            TypedQuery<Doctor> query = em.createQuery("SELECT d FROM Doctor d", Doctor.class);
-            List<Doctor> doctors = query.getResultList();
-            return doctors.stream()
+        try (DaoMetrics.Operation op = metrics.start("readAll", emf)) {
+            EntityManager em = op.entityManager();
+            return fetched(op, em.createQuery(SUMMARY_SELECT + " ORDER BY d.id", DoctorDTO.class)
+                .getResultList());
+        }
+    }
+
+    @Override
+    public List<DoctorDTO> readAll(Integer after, int limit) {
+        return readAll(after, limit, false);
+    }
+
+    public List<DoctorDTO> readAll(Integer after, int limit, boolean includeAppointments) {
+        try (DaoMetrics.Operation op = metrics.start(includeAppointments ? "readPageWithAppointments" : "readPage", emf)) {
+            EntityManager em = op.entityManager();
+            if (!includeAppointments) {
+                TypedQuery<DoctorDTO> query = em.createQuery(
+                    SUMMARY_SELECT + " WHERE d.id > :after ORDER BY d.id", DoctorDTO.class);
+                query.setParameter("after", after);
+                query.setMaxResults(limit);
+                return fetched(op, query.getResultList());
+            }
+
+            // Page on ids first, a row limit on a collection fetch would be applied in memory
+            List<Integer> ids = em.createQuery(
+                    "SELECT d.id FROM Doctor d WHERE d.id > :after ORDER BY d.id", Integer.class)
+                .setParameter("after", after)
+                .setMaxResults(limit)
+                .getResultList();
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            return fetched(op, em.createQuery(FETCH_SELECT + " WHERE d.id IN :ids ORDER BY d.id", Doctor.class)
+                .setParameter("ids", ids)
+                .getResultList()).stream()
                 .map(DoctorDTO::new)
                 .collect(Collectors.toList());
         }
     }
 
+    public void streamAll(Consumer<DoctorDTO> consumer) {
+        streamAll(consumer, false);
+    }
+
+    /**
+     * Streams every doctor, ordered by id, to the given consumer one row at a time.
+     * Uses a forward-only cursor so memory use stays flat regardless of table size.
+     * Appointments, when included, are loaded with one statement per batch of doctors.
+     */
+    public void streamAll(Consumer<DoctorDTO> consumer, boolean includeAppointments) {
+        try (DaoMetrics.Operation op = metrics.start(includeAppointments ? "streamAllWithAppointments" : "streamAll", emf)) {
+            EntityManager em = op.entityManager();
+            Session session = em.unwrap(Session.class);
+            // PostgreSQL only honours the fetch size inside a transaction
+            em.getTransaction().begin();
+            try (ScrollableResults<DoctorDTO> results = session
+                .createQuery(SUMMARY_SELECT + " ORDER BY d.id", DoctorDTO.class)
+                .setFetchSize(STREAM_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+                List<DoctorDTO> batch = new ArrayList<>(STREAM_FETCH_SIZE);
+                long rows = 0;
+                while (results.next()) {
+                    batch.add(results.get());
+                    rows++;
+                    if (batch.size() == STREAM_FETCH_SIZE) {
+                        emitBatch(session, batch, consumer, includeAppointments);
+                    }
+                }
+                emitBatch(session, batch, consumer, includeAppointments);
+                // The consumer's time is part of the hydration phase, rows are handed over as they are read
+                op.fetched(rows);
+            } finally {
+                // Read-only transaction, nothing to commit
+                em.getTransaction().rollback();
+            }
+        }
+    }
+
+    private void emitBatch(Session session, List<DoctorDTO> batch, Consumer<DoctorDTO> consumer, boolean includeAppointments) {
+        if (includeAppointments && !batch.isEmpty()) {
+            Map<Integer, List<AppointmentDTO>> appointments = session.createQuery(
+                    "SELECT a FROM Appointment a WHERE a.doctor.id IN :ids ORDER BY a.id", Appointment.class)
+                .setParameter("ids", batch.stream().map(DoctorDTO::getId).collect(Collectors.toList()))
+                .setReadOnly(true)
+                .getResultList().stream()
+                .collect(Collectors.groupingBy(a -> a.getDoctor().getId(),
+                    Collectors.mapping(AppointmentDTO::new, Collectors.toList())));
+            batch.forEach(doctor -> doctor.setAppointments(appointments.get(doctor.getId())));
+        }
+        batch.forEach(consumer);
+        batch.clear();
+        session.clear();
+    }
+
     @Override
     public DoctorDTO create(DoctorDTO doctorDTO) {
-        try (EntityManager em = emf.createEntityManager()) {
+        try (DaoMetrics.Operation op = metrics.start("create", emf)) {
+            EntityManager em = op.entityManager();
             em.getTransaction().begin();
             Doctor doctor = new Doctor(doctorDTO);
             em.persist(doctor);
             em.getTransaction().commit();
-            return new DoctorDTO(doctor);
+            specialityCache.invalidate(doctor.getSpeciality());
+            DoctorDTO created = new DoctorDTO(doctor, false);
+            searchIndex.put(created);
+            version.incrementAndGet();
+            return created;
         }
     }
 
+    /**
+     * Updates the doctor with a single versioned UPDATE, whose row count tells whether the doctor exists.
+     * Concurrent updates of the same doctor wait for each other's row lock, the last one wins.
+     * @return the updated doctor, or null if no doctor has the given id
+     */
     @Override
-    public DoctorDTO update(Integer id, DoctorDTO doctorDTO) {
-        try (EntityManager em = emf.createEntityManager()) {
+    public DoctorDTO update(Integer id, DoctorDTO doctorDTO) throws ApiException {
+        try (DaoMetrics.Operation op = metrics.start("update", emf)) {
+            EntityManager em = op.entityManager();
             em.getTransaction().begin();
-            Doctor doctor = em.find(Doctor.class, id);
-            doctor.updateFromDTO(doctorDTO);
-            Doctor mergedDoctor = em.merge(doctor);
+            int updated = em.createQuery("UPDATE Doctor d SET d.name = :name, d.dateOfBirth = :dateOfBirth,"
+                    + " d.yearOfGraduation = :yearOfGraduation, d.nameOfClinic = :nameOfClinic,"
+                    + " d.speciality = :speciality, d.updatedAt = :updatedAt, d.version = d.version + 1 WHERE d.id = :id")
+                .setParameter("name", doctorDTO.getName())
+                .setParameter("dateOfBirth", doctorDTO.getDateOfBirth())
+                .setParameter("yearOfGraduation", doctorDTO.getYearOfGraduation())
+                .setParameter("nameOfClinic", doctorDTO.getNameOfClinic())
+                .setParameter("speciality", doctorDTO.getSpeciality())
+                .setParameter("updatedAt", LocalDateTime.now())
+                .setParameter("id", id)
+                .executeUpdate();
+            if (updated == 0) {
+                em.getTransaction().rollback();
+                return null;
+            }
             em.getTransaction().commit();
-            return mergedDoctor != null ? new DoctorDTO(mergedDoctor) : null;
         }
+        // The previous speciality is not read, so every speciality list is evicted
+        evict(id);
+        DoctorDTO updated = new DoctorDTO(id, doctorDTO.getName(), doctorDTO.getDateOfBirth(),
+            doctorDTO.getYearOfGraduation(), doctorDTO.getNameOfClinic(), doctorDTO.getSpeciality());
+        searchIndex.put(updated);
+        version.incrementAndGet();
+        return updated;
     }
 
+    /**
+     * Deletes the doctor and its appointments in a single transaction, with two bulk statements,
+     * so the appointments are never loaded. The row count of the doctor's DELETE tells whether the doctor existed.
+     * An appointment booked between the two statements fails the doctor's DELETE on the foreign key,
+     * the delete is then retried.
+     * @return false if no doctor has the given id
+     * @throws ApiException 409 if new appointments kept arriving for all MAX_DELETE_ATTEMPTS attempts
+     */
     @Override
-    public void delete(Integer id) {
-        try (EntityManager em = emf.createEntityManager()) {
+    public boolean delete(Integer id) throws ApiException {
+        for (int attempt = 1; ; attempt++) {
+            try (DaoMetrics.Operation op = metrics.start("delete", emf)) {
+                EntityManager em = op.entityManager();
+                em.getTransaction().begin();
+                em.createQuery("DELETE FROM Appointment a WHERE a.doctor.id = :id")
+                    .setParameter("id", id)
+                    .executeUpdate();
+                int deleted;
+                try {
+                    deleted = em.createQuery("DELETE FROM Doctor d WHERE d.id = :id")
+                        .setParameter("id", id)
+                        .executeUpdate();
+                } catch (PersistenceException e) {
+                    em.getTransaction().rollback();
+                    if (!isConstraintViolation(e)) {
+                        throw e;
+                    }
+                    if (attempt < MAX_DELETE_ATTEMPTS) {
+                        continue;
+                    }
+                    throw new ApiException(409, "Doctor got new appointments while being deleted, id: " + id);
+                }
+                if (deleted == 0) {
+                    em.getTransaction().rollback();
+                    return false;
+                }
+                em.getTransaction().commit();
+            }
+            evict(id);
+            evictAppointments(id);
+            AvailabilityDAO.forget(id);
+            searchIndex.remove(id);
+            version.incrementAndGet();
+            return true;
+        }
+    }
+
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Marks the end of the operation's query, the caller maps the rows afterwards
+    private static <T> List<T> fetched(DaoMetrics.Operation op, List<T> rows) {
+        op.fetched(rows.size());
+        return rows;
+    }
+
+    /**
+     * Flushes and commits the current transaction.
+     * A row changed or deleted by a concurrent request between our find and the flush fails
+     * the version check of the UPDATE/DELETE, which Hibernate reports as an optimistic lock failure.
+     * @return false on such a conflict, in which case the transaction is rolled back
+     */
+    private boolean flushAndCommit(EntityManager em) {
+        try {
+            em.flush();
+        } catch (OptimisticLockException e) {
+            em.getTransaction().rollback();
+            return false;
+        }
+        em.getTransaction().commit();
+        return true;
+    }
+
+    /**
+     * Inserts all doctors in one transaction, sent to the database in JDBC batches
+     */
+    @Override
+    public List<DoctorDTO> createAll(List<DoctorDTO> doctorDTOs) {
+        List<DoctorDTO> created = new ArrayList<>(doctorDTOs.size());
+        try (DaoMetrics.Operation op = metrics.start("createAll", emf)) {
+            EntityManager em = op.entityManager();
             em.getTransaction().begin();
-            Doctor doctor = em.find(Doctor.class, id);
-            if (doctor != null) {
-                em.remove(doctor);
+            for (DoctorDTO doctorDTO : doctorDTOs) {
+                doctorDTO.setId(null);
+                Doctor doctor = new Doctor(doctorDTO);
+                em.persist(doctor);
+                created.add(new DoctorDTO(doctor, false));
+                flushBatch(em, created.size());
             }
             em.getTransaction().commit();
         }
+        created.forEach(doctor -> {
+            specialityCache.invalidate(doctor.getSpeciality());
+            searchIndex.put(doctor);
+        });
+        version.incrementAndGet();
+        return created;
+    }
+
+    /**
+     * Updates all doctors in one transaction. Nothing is changed if any of the ids does not exist.
+     */
+    @Override
+    public List<DoctorDTO> updateAll(List<DoctorDTO> doctorDTOs) throws ApiException {
+        List<DoctorDTO> updated = new ArrayList<>(doctorDTOs.size());
+        List<Speciality> previousSpecialities = new ArrayList<>(doctorDTOs.size());
+        try (DaoMetrics.Operation op = metrics.start("updateAll", emf)) {
+            EntityManager em = op.entityManager();
+            em.getTransaction().begin();
+            Map<Integer, Doctor> doctors = findAll(em, doctorDTOs.stream().map(DoctorDTO::getId).collect(Collectors.toList()));
+            List<Integer> missing = doctorDTOs.stream()
+                .map(DoctorDTO::getId)
+                .filter(id -> !doctors.containsKey(id))
+                .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                em.getTransaction().rollback();
+                throw new ApiException(404, "Doctors not found with ids: " + missing);
+            }
+            for (DoctorDTO doctorDTO : doctorDTOs) {
+                Doctor doctor = doctors.get(doctorDTO.getId());
+                previousSpecialities.add(doctor.getSpeciality());
+                doctor.updateFromDTO(doctorDTO);
+                updated.add(new DoctorDTO(doctor, false));
+            }
+            if (!flushAndCommit(em)) {
+                throw new ApiException(409, "Doctors were modified or deleted by another request, nothing was updated");
+            }
+        }
+        for (int i = 0; i < updated.size(); i++) {
+            evict(updated.get(i).getId(), previousSpecialities.get(i));
+            specialityCache.invalidate(updated.get(i).getSpeciality());
+            searchIndex.put(updated.get(i));
+        }
+        version.incrementAndGet();
+        return updated;
+    }
+
+    /**
+     * Deletes the doctors with the given ids and their appointments with two bulk statements
+     * @return the number of doctors deleted
+     */
+    @Override
+    public int deleteAll(List<Integer> ids) {
+        int deleted = 0;
+        try (DaoMetrics.Operation op = metrics.start("deleteAll", emf)) {
+            EntityManager em = op.entityManager();
+            em.getTransaction().begin();
+            for (List<Integer> chunk : chunks(ids)) {
+                em.createQuery("DELETE FROM Appointment a WHERE a.doctor.id IN :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+                deleted += em.createQuery("DELETE FROM Doctor d WHERE d.id IN :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+            }
+            em.getTransaction().commit();
+        }
+        ids.forEach(id -> {
+            doctorCache.invalidate(id);
+            doctorWithAppointmentsCache.invalidate(id);
+            AvailabilityDAO.forget(id);
+            searchIndex.remove(id);
+        });
+        specialityCache.invalidateAll();
+        version.incrementAndGet();
+        return deleted;
+    }
+
+    private Map<Integer, Doctor> findAll(EntityManager em, List<Integer> ids) {
+        Map<Integer, Doctor> doctors = new HashMap<>();
+        for (List<Integer> chunk : chunks(ids)) {
+            em.createQuery("SELECT d FROM Doctor d WHERE d.id IN :ids", Doctor.class)
+                .setParameter("ids", chunk)
+                .getResultList()
+                .forEach(doctor -> doctors.put(doctor.getId(), doctor));
+        }
+        return doctors;
+    }
+
+    // Keeps IN lists well below PostgreSQL's bind parameter limit
+    private static List<List<Integer>> chunks(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_IN_LIST_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + MAX_IN_LIST_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    // Sends the pending inserts as one JDBC batch and detaches them, keeping the session small
+    private static void flushBatch(EntityManager em, int count) {
+        if (count % HibernateConfig.BATCH_SIZE == 0) {
+            em.flush();
+            em.clear();
+        }
+    }
+
+    private void evict(Integer id, Speciality speciality) {
+        doctorCache.invalidate(id);
+        doctorWithAppointmentsCache.invalidate(id);
+        specialityCache.invalidate(speciality);
+    }
+
+    // For writes that don't know the doctor's speciality, there are only a few speciality lists
+    private void evict(Integer id) {
+        doctorCache.invalidate(id);
+        doctorWithAppointmentsCache.invalidate(id);
+        specialityCache.invalidateAll();
+    }
+
+    /**
+     * Evicts what an appointment written for the doctor makes stale, called by AppointmentDAO after it commits
+     */
+    public void appointmentsChanged(Integer doctorId) {
+        evictAppointments(doctorId);
+        doctorWithAppointmentsCache.invalidate(doctorId);
+        version.incrementAndGet();
+    }
+
+    // The doctor's appointment collection in the second-level cache
+    private void evictAppointments(Integer doctorId) {
+        emf.getCache().unwrap(Cache.class)
+            .evictCollectionData(Doctor.class.getName() + ".appointments", doctorId);
+    }
+
+    /**
+     * Drops every cached DTO, availability bitmap and the search index, for use after the doctors table was changed outside this DAO
+     */
+    public void evictAll() {
+        doctorCache.invalidateAll();
+        doctorWithAppointmentsCache.invalidateAll();
+        specialityCache.invalidateAll();
+        AvailabilityDAO.clear();
+        searchIndex.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Version of the doctor data, changes whenever a write through this DAO has been committed.
+     * Caches are evicted before the version moves on, so anything read at a version is at least that fresh.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public List<LoadingCache<?, ?>> getDtoCaches() {
+        return List.of(doctorCache, doctorWithAppointmentsCache, specialityCache);
     }
 
     @Override
     public boolean validatePrimaryKey(Integer id) {
-        try (EntityManager em = emf.createEntityManager()) {
+        try (DaoMetrics.Operation op = metrics.start("validatePrimaryKey", emf)) {
+            EntityManager em = op.entityManager();
             return em.find(Doctor.class, id) != null;
         }
     }
 
+    /**
+     * Doctors whose name or clinic has a word starting with each word of the query, best matches first.
+     * Answered from the in-memory DoctorSearchIndex, which is loaded on the first search. With
+     * SEARCH_BACKEND=postgres the query runs in the database instead, where words match anywhere in a
+     * name or clinic, served by the pg_trgm indexes when the extension is installed. The database
+     * compares accents as written, so there "norrebro" does not find Nørrebro, and folds the case of
+     * non-ASCII letters in names only as far as its lower() does for the database's LC_CTYPE.
+     */
+    public List<DoctorDTO> search(String query, int limit) {
+        if ("postgres".equalsIgnoreCase(HibernateConfig.getEnv("SEARCH_BACKEND", "memory"))) {
+            return searchDatabase(query, limit);
+        }
+        if (!searchIndex.isLoaded()) {
+            searchIndex.load(this::streamAll);
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    private List<DoctorDTO> searchDatabase(String query, int limit) {
+        // Not folded like the in-memory index, lower() in the database keeps accents and letters like ø
+        List<String> words = DoctorSearchIndex.lowercaseWords(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder where = new StringBuilder(" WHERE ");
+        for (int i = 0; i < words.size(); i++) {
+            if (i > 0) {
+                where.append(" AND ");
+            }
+            where.append("(lower(d.name) LIKE :w").append(i).append(" OR lower(d.nameOfClinic) LIKE :w").append(i).append(")");
+        }
+        // Name matches on the first query word rank above clinic matches
+        String order = " ORDER BY CASE WHEN lower(d.name) LIKE :w0 THEN 0 ELSE 1 END, length(d.name), d.id";
+        try (DaoMetrics.Operation op = metrics.start("searchDatabase", emf)) {
+            EntityManager em = op.entityManager();
+            TypedQuery<DoctorDTO> typedQuery = em.createQuery(SUMMARY_SELECT + where + order, DoctorDTO.class);
+            for (int i = 0; i < words.size(); i++) {
+                typedQuery.setParameter("w" + i, "%" + words.get(i) + "%");
+            }
+            typedQuery.setMaxResults(limit);
+            return fetched(op, typedQuery.getResultList());
+        }
+    }
+
+    /**
+     * Doctors matching every filter of the query, as one Criteria query that selects only the requested fields.
+     * Rows map field names to values in DoctorQuery.FIELDS order, with dates as yyyy-MM-dd like DoctorDTO.
+     * Sorting is by the requested field, then by id so pages with an offset are stable.
+     */
+    public List<Map<String, Object>> query(DoctorQuery query) {
+        try (DaoMetrics.Operation op = metrics.start("query", emf)) {
+            EntityManager em = op.entityManager();
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<Tuple> criteria = cb.createTupleQuery();
+            Root<Doctor> doctor = criteria.from(Doctor.class);
+
+            List<Predicate> predicates = new ArrayList<>();
+            if (!query.getSpecialities().isEmpty()) {
+                predicates.add(doctor.get("speciality").in(query.getSpecialities()));
+            }
+            if (query.getBornFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(doctor.get("dateOfBirth"), query.getBornFrom()));
+            }
+            if (query.getBornTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(doctor.get("dateOfBirth"), query.getBornTo()));
+            }
+            if (query.getGraduatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(doctor.get("yearOfGraduation"), query.getGraduatedFrom()));
+            }
+            if (query.getGraduatedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(doctor.get("yearOfGraduation"), query.getGraduatedTo()));
+            }
+            if (query.getClinic() != null) {
+                // Served by the trigram index on lower(nameOfClinic) when pg_trgm is installed
+                String pattern = "%" + query.getClinic().toLowerCase()
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                predicates.add(cb.like(cb.lower(doctor.get("nameOfClinic")), pattern, '\\'));
+            }
+
+            List<String> fields = DoctorQuery.FIELDS.stream().filter(query.getFields()::contains).toList();
+            List<Selection<?>> selections = new ArrayList<>();
+            for (String field : fields) {
+                selections.add(doctor.get(field).alias(field));
+            }
+            Path<?> sortPath = doctor.get(query.getSort());
+            List<Order> order = new ArrayList<>();
+            order.add(query.isDescending() ? cb.desc(sortPath) : cb.asc(sortPath));
+            if (!"id".equals(query.getSort())) {
+                order.add(cb.asc(doctor.get("id")));
+            }
+            criteria.multiselect(selections)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(order);
+
+            List<Tuple> tuples = em.createQuery(criteria)
+                .setFirstResult(query.getOffset())
+                .setMaxResults(query.getLimit())
+                .getResultList();
+            op.fetched(tuples.size());
+            List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+            for (Tuple tuple : tuples) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (String field : fields) {
+                    Object value = tuple.get(field);
+                    row.put(field, value instanceof LocalDate date ? date.toString() : value);
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+    }
+
     public List<DoctorDTO> doctorBySpeciality(Speciality speciality) {
-        try (EntityManager em = emf.createEntityManager()) {
-            TypedQuery<DoctorDTO> query = em.createQuery(
-                "SELECT new dat.dtos.DoctorDTO(d) FROM Doctor d WHERE d.speciality = :speciality",
-                DoctorDTO.class);
+        return doctorBySpeciality(speciality, false);
+    }
+
+    public List<DoctorDTO> doctorBySpeciality(Speciality speciality, boolean includeAppointments) {
+        if (!includeAppointments) {
+            return specialityCache.get(speciality, key -> List.copyOf(loadBySpeciality(key, false)));
+        }
+        return loadBySpeciality(speciality, true);
+    }
+
+    private List<DoctorDTO> loadBySpeciality(Speciality speciality, boolean includeAppointments) {
+        try (DaoMetrics.Operation op = metrics.start(includeAppointments ? "readBySpecialityWithAppointments" : "readBySpeciality", emf)) {
+            EntityManager em = op.entityManager();
+            String where = " WHERE d.speciality = :speciality ORDER BY d.id";
+            if (includeAppointments) {
+                return fetched(op, em.createQuery(FETCH_SELECT + where, Doctor.class)
+                    .setParameter("speciality", speciality)
+                    .setHint(HibernateHints.HINT_CACHEABLE, true)
+                    .setHint(HibernateHints.HINT_CACHE_REGION, QUERY_CACHE_REGION)
+                    .getResultList()).stream()
+                    .map(DoctorDTO::new)
+                    .collect(Collectors.toList());
+            }
+            TypedQuery<DoctorDTO> query = em.createQuery(SUMMARY_SELECT + where, DoctorDTO.class);
             query.setParameter("speciality", speciality);
-            return query.getResultList();
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, QUERY_CACHE_REGION);
+            return fetched(op, query.getResultList());
         }
     }
 
     public List<DoctorDTO> doctorByBirthdateRange(LocalDate from, LocalDate to) {
-        try (EntityManager em = emf.createEntityManager()) {
-            TypedQuery<DoctorDTO> query = em.createQuery(
-                "SELECT new dat.dtos.DoctorDTO(d) FROM Doctor d WHERE d.dateOfBirth BETWEEN :from AND :to",
-                DoctorDTO.class);
+        return doctorByBirthdateRange(from, to, false);
+    }
+
+    public List<DoctorDTO> doctorByBirthdateRange(LocalDate from, LocalDate to, boolean includeAppointments) {
+        try (DaoMetrics.Operation op = metrics.start(includeAppointments ? "readByBirthdateRangeWithAppointments" : "readByBirthdateRange", emf)) {
+            EntityManager em = op.entityManager();
+            String where = " WHERE d.dateOfBirth BETWEEN :from AND :to ORDER BY d.id";
+            if (includeAppointments) {
+                return fetched(op, em.createQuery(FETCH_SELECT + where, Doctor.class)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .getResultList()).stream()
+                    .map(DoctorDTO::new)
+                    .collect(Collectors.toList());
+            }
+            TypedQuery<DoctorDTO> query = em.createQuery(SUMMARY_SELECT + where, DoctorDTO.class);
             query.setParameter("from", from);
             query.setParameter("to", to);
-            return query.getResultList();
+            return fetched(op, query.getResultList());
         }
     }
-}
\ No newline at end of file
+}
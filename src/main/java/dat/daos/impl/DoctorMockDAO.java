@@ -3,80 +3,208 @@ package dat.daos.impl;
 import dat.daos.IDAO;
 import dat.dtos.DoctorDTO;
 import dat.enums.Speciality;
+import dat.exceptions.ApiException;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * Mock DAO implementation for doctors
+ * Doctors are kept in a concurrent map sorted by id, with secondary indexes by speciality and by date of birth.
+ * Reads never lock. Writes are serialized so the map and the indexes change together, and readers
+ * check speciality index hits against the map, so they never see a doctor under a speciality it no longer has.
  */
 public class DoctorMockDAO implements IDAO<DoctorDTO, Integer> {
-    private static final List<DoctorDTO> doctors = new ArrayList<>();
-    private static int nextId = 1;
+    private static final NavigableMap<Integer, DoctorDTO> doctors = new ConcurrentSkipListMap<>();
+    private static final Map<Speciality, Set<Integer>> idsBySpeciality = new EnumMap<>(Speciality.class);
+    // Keyed by epoch day, so range lookups compare longs instead of LocalDates. Holds the doctors
+    // themselves, sorted by id within a day, so a range read needs no lookups in the id map.
+    private static final NavigableMap<Long, Map<Integer, DoctorDTO>> doctorsByBirthdate = new ConcurrentSkipListMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger(1);
+    private static final Object writeLock = new Object();
 
     static {
-        doctors.add(new DoctorDTO(nextId++, "Dr. Alice Smith", LocalDate.of(1975, 4, 12), 2000, "City Health Clinic", Speciality.FAMILY_MEDICINE));
-        doctors.add(new DoctorDTO(nextId++, "Dr. Bob Johnson", LocalDate.of(1980, 8, 5), 2005, "Downtown Medical Center", Speciality.SURGERY));
-        doctors.add(new DoctorDTO(nextId++, "Dr. Clara Lee", LocalDate.of(1983, 7, 22), 2008, "Green Valley Hospital", Speciality.PEDIATRICS));
-        doctors.add(new DoctorDTO(nextId++, "Dr. David Park", LocalDate.of(1978, 11, 15), 2003, "Hillside Medical Practice", Speciality.PSYCHIATRY));
-        doctors.add(new DoctorDTO(nextId++, "Dr. Emily White", LocalDate.of(1982, 9, 30), 2007, "Metro Health Center", Speciality.GERIATRICS));
-        doctors.add(new DoctorDTO(nextId++, "Dr. Fiona Martinez", LocalDate.of(1985, 2, 17), 2010, "Riverside Wellness Clinic", Speciality.SURGERY));
-        doctors.add(new DoctorDTO(nextId++, "Dr. George Kim", LocalDate.of(1979, 5, 29), 2004, "Summit Health Institute", Speciality.FAMILY_MEDICINE));
+        // Every speciality gets its set up front, so the EnumMap itself is never modified afterwards
+        for (Speciality speciality : Speciality.values()) {
+            idsBySpeciality.put(speciality, new ConcurrentSkipListSet<>());
+        }
+        add(new DoctorDTO(null, "Dr. Alice Smith", LocalDate.of(1975, 4, 12), 2000, "City Health Clinic", Speciality.FAMILY_MEDICINE));
+        add(new DoctorDTO(null, "Dr. Bob Johnson", LocalDate.of(1980, 8, 5), 2005, "Downtown Medical Center", Speciality.SURGERY));
+        add(new DoctorDTO(null, "Dr. Clara Lee", LocalDate.of(1983, 7, 22), 2008, "Green Valley Hospital", Speciality.PEDIATRICS));
+        add(new DoctorDTO(null, "Dr. David Park", LocalDate.of(1978, 11, 15), 2003, "Hillside Medical Practice", Speciality.PSYCHIATRY));
+        add(new DoctorDTO(null, "Dr. Emily White", LocalDate.of(1982, 9, 30), 2007, "Metro Health Center", Speciality.GERIATRICS));
+        add(new DoctorDTO(null, "Dr. Fiona Martinez", LocalDate.of(1985, 2, 17), 2010, "Riverside Wellness Clinic", Speciality.SURGERY));
+        add(new DoctorDTO(null, "Dr. George Kim", LocalDate.of(1979, 5, 29), 2004, "Summit Health Institute", Speciality.FAMILY_MEDICINE));
+    }
+
+    private static DoctorDTO add(DoctorDTO doctor) {
+        synchronized (writeLock) {
+            doctor.setId(nextId.getAndIncrement());
+            doctors.put(doctor.getId(), doctor);
+            index(doctor);
+            return doctor;
+        }
+    }
+
+    // Callers hold writeLock
+    private static void index(DoctorDTO doctor) {
+        if (doctor.getSpeciality() != null) {
+            idsBySpeciality.get(doctor.getSpeciality()).add(doctor.getId());
+        }
+        if (doctor.getDateOfBirth() != null) {
+            doctorsByBirthdate.computeIfAbsent(doctor.getDateOfBirth().toEpochDay(), day -> new ConcurrentSkipListMap<>())
+                .put(doctor.getId(), doctor);
+        }
+    }
+
+    // Callers hold writeLock
+    private static void unindex(DoctorDTO doctor) {
+        if (doctor.getSpeciality() != null) {
+            idsBySpeciality.get(doctor.getSpeciality()).remove(doctor.getId());
+        }
+        if (doctor.getDateOfBirth() != null) {
+            long day = doctor.getDateOfBirth().toEpochDay();
+            Map<Integer, DoctorDTO> sameDay = doctorsByBirthdate.get(day);
+            if (sameDay != null) {
+                sameDay.remove(doctor.getId());
+                if (sameDay.isEmpty()) {
+                    doctorsByBirthdate.remove(day);
+                }
+            }
+        }
     }
 
     @Override
     public DoctorDTO read(Integer id) {
-        return doctors.stream()
-            .filter(d -> d.getId() == id)
-            .findFirst()
-            .orElse(null);
+        return id == null ? null : doctors.get(id);
     }
 
     @Override
     public List<DoctorDTO> readAll() {
-        return new ArrayList<>(doctors);
+        return new ArrayList<>(doctors.values());
+    }
+
+    @Override
+    public List<DoctorDTO> readAll(Integer after, int limit) {
+        return doctors.tailMap(after, false).values().stream()
+            .limit(limit)
+            .collect(Collectors.toList());
     }
 
     @Override
     public DoctorDTO create(DoctorDTO doctor) {
-        doctor.setId(nextId++);
-        doctors.add(doctor);
-        return doctor;
+        return add(doctor);
     }
 
     @Override
     public DoctorDTO update(Integer id, DoctorDTO doctor) {
-        for (int i = 0; i < doctors.size(); i++) {
-            if (doctors.get(i).getId() == id) {
-                doctor.setId(id);
-                doctors.set(i, doctor);
-                return doctor;
+        synchronized (writeLock) {
+            DoctorDTO previous = doctors.get(id);
+            if (previous == null) {
+                return null;
             }
+            unindex(previous);
+            doctor.setId(id);
+            doctors.put(id, doctor);
+            index(doctor);
+            return doctor;
         }
-        return null;
     }
 
     @Override
-    public void delete(Integer id) {
-        doctors.removeIf(d -> d.getId() == id);
+    public boolean delete(Integer id) {
+        synchronized (writeLock) {
+            DoctorDTO removed = doctors.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            unindex(removed);
+            return true;
+        }
+    }
+
+    @Override
+    public List<DoctorDTO> createAll(List<DoctorDTO> doctorDTOs) {
+        synchronized (writeLock) {
+            doctorDTOs.forEach(DoctorMockDAO::add);
+            return doctorDTOs;
+        }
+    }
+
+    @Override
+    public List<DoctorDTO> updateAll(List<DoctorDTO> doctorDTOs) throws ApiException {
+        synchronized (writeLock) {
+            List<Integer> missing = doctorDTOs.stream()
+                .map(DoctorDTO::getId)
+                .filter(id -> id == null || !doctors.containsKey(id))
+                .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                throw new ApiException(404, "Doctors not found with ids: " + missing);
+            }
+            doctorDTOs.forEach(doctor -> update(doctor.getId(), doctor));
+            return doctorDTOs;
+        }
+    }
+
+    @Override
+    public int deleteAll(List<Integer> ids) {
+        synchronized (writeLock) {
+            int deleted = 0;
+            for (Integer id : ids) {
+                if (delete(id)) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        }
     }
 
     @Override
     public boolean validatePrimaryKey(Integer id) {
-        return doctors.stream().anyMatch(d -> d.getId() == id);
+        return id != null && doctors.containsKey(id);
     }
 
     public List<DoctorDTO> doctorBySpeciality(Speciality speciality) {
-        return doctors.stream()
+        // The id set is sorted, so doctors come back in id order
+        return idsBySpeciality.get(speciality).stream()
+            .map(doctors::get)
+            .filter(Objects::nonNull)
             .filter(d -> d.getSpeciality() == speciality)
             .collect(Collectors.toList());
     }
 
     public List<DoctorDTO> doctorByBirthdateRange(LocalDate from, LocalDate to) {
-        return doctors.stream()
-            .filter(d -> !d.getDateOfBirth().isBefore(from) && !d.getDateOfBirth().isAfter(to))
-            .collect(Collectors.toList());
+        return doctorByBirthdateRange(from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Doctors born between from and to (inclusive), oldest first, reading no further than the limit
+     */
+    public List<DoctorDTO> doctorByBirthdateRange(LocalDate from, LocalDate to, int limit) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        List<DoctorDTO> result = new ArrayList<>();
+        if (fromDay > toDay || limit <= 0) {
+            return result;
+        }
+        for (Map<Integer, DoctorDTO> sameDay : doctorsByBirthdate.subMap(fromDay, true, toDay, true).values()) {
+            for (DoctorDTO doctor : sameDay.values()) {
+                result.add(doctor);
+                if (result.size() == limit) {
+                    return result;
+                }
+            }
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,309 @@
+package dat.daos.impl;
+
+import dat.dtos.DoctorDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over doctor names and clinic names, for type-ahead search.
+ * Both fields are split into lowercase words without accents, and every word maps to the ids of the
+ * doctors that contain it, in a sorted map so all words starting with a prefix are one range.
+ * A query matches a doctor if each of its words is a prefix of one of the doctor's words.
+ * Candidates come from the query word with the fewest matching doctors, exact word matches first, and
+ * at most MAX_CANDIDATES of them are ranked, so a one letter query costs no more than a specific one.
+ * The index is built from the database on first use and then kept current by DoctorDAO's writes.
+ */
+class DoctorSearchIndex {
+    private static final int MAX_CANDIDATES = 2_000;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    // Letters that NFD doesn't split into a base letter and a mark
+    private static final Map<Character, String> FOLDS = Map.of('ø', "o", 'æ', "ae", 'œ', "oe", 'ß', "ss", 'ł', "l", 'đ', "d");
+
+    // Written by the builder and by writers holding the lock, read without it
+    private final NavigableMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Indexed> doctors = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Ids of the doctors containing one word. Small arrays guarded by the instance, ids are not ordered.
+     */
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        synchronized void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        synchronized boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int[] snapshot(int max) {
+            return Arrays.copyOf(ids, Math.min(size, max));
+        }
+    }
+
+    // A doctor with its words, tokenized once when indexed
+    private record Indexed(DoctorDTO doctor, List<String> nameWords, List<String> clinicWords) {
+        Set<String> words() {
+            Set<String> words = new HashSet<>(nameWords);
+            words.addAll(clinicWords);
+            return words;
+        }
+    }
+
+    private record Hit(DoctorDTO doctor, int score) {
+    }
+
+    // Best first: score, then shorter names, then lower ids
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+        .thenComparingInt(hit -> hit.doctor().getName().length())
+        .thenComparing(hit -> hit.doctor().getId());
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Fills the index from the given source, once. Writes wait until it is done and are applied afterwards.
+     */
+    synchronized void load(Consumer<Consumer<DoctorDTO>> source) {
+        if (!loaded) {
+            source.accept(this::add);
+            loaded = true;
+        }
+    }
+
+    /**
+     * Adds or replaces the doctor. Ignored until the index is loaded, the load will read it from the database.
+     */
+    synchronized void put(DoctorDTO doctor) {
+        if (!loaded) {
+            return;
+        }
+        Indexed previous = doctors.get(doctor.getId());
+        if (previous != null) {
+            removeWords(previous);
+        }
+        add(doctor);
+    }
+
+    synchronized void remove(Integer id) {
+        if (!loaded) {
+            return;
+        }
+        Indexed previous = doctors.remove(id);
+        if (previous != null) {
+            removeWords(previous);
+        }
+    }
+
+    synchronized void clear() {
+        postings.clear();
+        doctors.clear();
+        loaded = false;
+    }
+
+    // Callers hold the lock or are the loader
+    private void add(DoctorDTO doctor) {
+        // A copy, callers keep using the DTOs they pass in
+        DoctorDTO copy = new DoctorDTO(doctor.getId(), doctor.getName(), doctor.getDateOfBirth(),
+            doctor.getYearOfGraduation(), doctor.getNameOfClinic(), doctor.getSpeciality());
+        Indexed indexed = new Indexed(copy, tokenize(copy.getName()), tokenize(copy.getNameOfClinic()));
+        doctors.put(copy.getId(), indexed);
+        for (String word : indexed.words()) {
+            postings.computeIfAbsent(word, key -> new Postings()).add(copy.getId());
+        }
+    }
+
+    private void removeWords(Indexed indexed) {
+        for (String word : indexed.words()) {
+            Postings ids = postings.get(word);
+            if (ids != null && ids.remove(indexed.doctor().getId()) && ids.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Lowercase words without accents, in order of appearance. Nørrebro and Ærø become norrebro and aero.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder folded = new StringBuilder(normalized.length());
+        for (char c : normalized.toLowerCase(Locale.ROOT).toCharArray()) {
+            String fold = FOLDS.get(c);
+            if (fold != null) {
+                folded.append(fold);
+            } else {
+                folded.append(c);
+            }
+        }
+        return split(folded);
+    }
+
+    /**
+     * Lowercase words that keep their accents, for comparing with lower() in the database. Nørrebro becomes nørrebro.
+     */
+    static List<String> lowercaseWords(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return split(text.toLowerCase(Locale.ROOT));
+    }
+
+    private static List<String> split(CharSequence text) {
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(text)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The best ranked doctors matching every word of the query, at most limit of them
+     */
+    List<DoctorDTO> search(String query, int limit) {
+        List<String> queryWords = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryWords.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String driver = mostSelective(queryWords);
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(RANKING.reversed());
+        Set<Integer> seen = new HashSet<>();
+        int budget = MAX_CANDIDATES;
+        // Exact matches of the driver word come first, it sorts before all longer words with that prefix
+        for (Map.Entry<String, Postings> entry : prefixRange(driver)) {
+            if (budget <= 0) {
+                break;
+            }
+            int[] ids = entry.getValue().snapshot(budget);
+            budget -= ids.length;
+            for (int id : ids) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                Indexed indexed = doctors.get(id);
+                int score = indexed == null ? 0 : score(indexed, queryWords);
+                if (score == 0) {
+                    continue;
+                }
+                Hit hit = new Hit(indexed.doctor(), score);
+                // Once full, the queue only changes for a hit that beats its worst, most candidates don't
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return hits.stream().map(Hit::doctor).toList();
+    }
+
+    // Words with the prefix, the exact word first
+    private Iterable<Map.Entry<String, Postings>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet();
+    }
+
+    /**
+     * The query word whose prefix range holds the fewest ids. Counting stops as soon as a word
+     * can't beat the best so far, so a common word costs little more than the rarest one.
+     */
+    private String mostSelective(List<String> queryWords) {
+        String best = null;
+        long bestCount = Long.MAX_VALUE;
+        for (String queryWord : queryWords) {
+            long count = 0;
+            for (Map.Entry<String, Postings> entry : prefixRange(queryWord)) {
+                count += entry.getValue().size();
+                // Past MAX_CANDIDATES all words are equally capped
+                if (count >= bestCount || count > MAX_CANDIDATES) {
+                    break;
+                }
+            }
+            if (count < bestCount) {
+                best = queryWord;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Sums, per query word, its best match: exact name word 8, name prefix 4, exact clinic word 2, clinic prefix 1.
+     * @return 0 if any query word matches nothing
+     */
+    private static int score(Indexed indexed, List<String> queryWords) {
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int wordScore = Math.max(match(indexed.nameWords(), queryWord) * 4, match(indexed.clinicWords(), queryWord));
+            if (wordScore == 0) {
+                return 0;
+            }
+            total += wordScore;
+        }
+        return total;
+    }
+
+    // 2 for an exact word, 1 for a prefix, 0 for no match
+    private static int match(List<String> words, String queryWord) {
+        int best = 0;
+        for (String word : words) {
+            if (word.equals(queryWord)) {
+                return 2;
+            }
+            if (word.startsWith(queryWord)) {
+                best = 1;
+            }
+        }
+        return best;
+    }
+
+    int size() {
+        return doctors.size();
+    }
+}
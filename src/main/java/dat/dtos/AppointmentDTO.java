@@ -14,6 +14,7 @@ import java.time.LocalTime;
 @NoArgsConstructor
 public class AppointmentDTO {
     private Integer id;
+    private Integer doctorId;
     private String clientName;
 
     @JsonFormat(pattern = "yyyy-MM-dd")
@@ -26,9 +27,21 @@ public class AppointmentDTO {
 
     public AppointmentDTO(Appointment appointment) {
         this.id = appointment.getId();
+        // Reading the id of the lazy doctor proxy does not load the doctor
+        this.doctorId = appointment.getDoctor() != null ? appointment.getDoctor().getId() : null;
         this.clientName = appointment.getClientName();
         this.date = appointment.getDate();
         this.time = appointment.getTime();
         this.comment = appointment.getComment();
     }
-}
\ No newline at end of file
+
+    // Used by JPQL constructor projections
+    public AppointmentDTO(Integer id, Integer doctorId, String clientName, LocalDate date, LocalTime time, String comment) {
+        this.id = id;
+        this.doctorId = doctorId;
+        this.clientName = clientName;
+        this.date = date;
+        this.time = time;
+        this.comment = comment;
+    }
+}
@@ -0,0 +1,20 @@
+package dat.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hit/miss/eviction counters for one second-level or query cache region
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatisticsDTO {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+    private double hitRatio;
+}
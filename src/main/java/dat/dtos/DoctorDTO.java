@@ -29,6 +29,11 @@ public class DoctorDTO {
     private List<AppointmentDTO> appointments;
 
     public DoctorDTO(Doctor doctor) {
+        this(doctor, true);
+    }
+
+    // Leave includeAppointments false unless the appointments were fetched, otherwise they get lazily loaded here
+    public DoctorDTO(Doctor doctor, boolean includeAppointments) {
         this.id = doctor.getId();
         this.name = doctor.getName();
         this.dateOfBirth = doctor.getDateOfBirth();
@@ -37,7 +42,7 @@ public class DoctorDTO {
         this.speciality = doctor.getSpeciality();
 
         // Convert appointments if they exist
-        if (doctor.getAppointments() != null && !doctor.getAppointments().isEmpty()) {
+        if (includeAppointments && doctor.getAppointments() != null && !doctor.getAppointments().isEmpty()) {
             this.appointments = doctor.getAppointments().stream()
                 .map(AppointmentDTO::new)
                 .collect(Collectors.toList());
@@ -0,0 +1,36 @@
+package dat.dtos;
+
+import dat.enums.Speciality;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filters, sort order and selected fields of a doctor query. Unset filters match every doctor.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class DoctorQuery {
+    // Fields that can be selected and sorted on, in the order they are returned
+    public static final List<String> FIELDS =
+        List.of("id", "name", "dateOfBirth", "yearOfGraduation", "nameOfClinic", "speciality");
+
+    private Set<Speciality> specialities = EnumSet.noneOf(Speciality.class);
+    private LocalDate bornFrom;
+    private LocalDate bornTo;
+    private Integer graduatedFrom;
+    private Integer graduatedTo;
+    // Part of the clinic name, case-insensitive
+    private String clinic;
+    private String sort = "id";
+    private boolean descending;
+    private List<String> fields = FIELDS;
+    private int offset;
+    private int limit = 50;
+}
@@ -0,0 +1,26 @@
+package dat.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Occupancy and connection acquire latency of the database connection pool
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PoolStatisticsDTO {
+    private String pool;
+    private int active;
+    private int idle;
+    private int total;
+    private int pending;
+    private int maxSize;
+    private int minIdle;
+    private long acquisitions;
+    private double acquireMeanMillis;
+    private double acquireMaxMillis;
+    private long timeouts;
+    private double usageMeanMillis;
+}
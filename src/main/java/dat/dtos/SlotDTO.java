@@ -0,0 +1,27 @@
+package dat.dtos;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A free appointment slot of a doctor, starting at the given date and time
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotDTO {
+    private Integer doctorId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime time;
+
+    private int minutes;
+}
@@ -6,6 +6,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -16,15 +18,25 @@ import java.time.LocalDateTime;
  * Links to Doctor entity in a ManyToOne relationship
  */
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", uniqueConstraints = {
+    // One appointment per doctor and start time. Its index also serves a doctor's schedule in
+    // date and time order, optionally within a date window, and backs the foreign key
+    @UniqueConstraint(name = Appointment.UNIQUE_SLOT, columnNames = {"doctor_id", "date", "time"})
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "appointments")
 @Getter
 @Setter
 @NoArgsConstructor
 @ToString(exclude = "doctor")
 public class Appointment {
+    public static final String UNIQUE_SLOT = "uk_appointments_doctor_id_date_time";
+    // Postgres' default name for the REFERENCES constraint of V1, also given to the schema Hibernate generates
+    public static final String DOCTOR_FOREIGN_KEY = "appointments_doctor_id_fkey";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false)
@@ -39,6 +51,11 @@ public class Appointment {
     @Column(length = 1000)
     private String comment;
 
+    // Lets two concurrent cancellations of the same appointment remove it once, see AppointmentDAO.cancel
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Temporal audit fields
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -48,7 +65,7 @@ public class Appointment {
 
     // Many-to-One relationship with Doctor
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "doctor_id", nullable = false)
+    @JoinColumn(name = "doctor_id", nullable = false, foreignKey = @ForeignKey(name = DOCTOR_FOREIGN_KEY))
     private Doctor doctor;
 
     /**
@@ -6,6 +6,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -13,13 +15,24 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "doctors")
+@Table(name = "doctors", indexes = {
+    // Also serves lookups by speciality alone, as its leading column
+    @Index(name = "idx_doctors_speciality_date_of_birth", columnList = "speciality, dateOfBirth"),
+    @Index(name = "idx_doctors_date_of_birth", columnList = "dateOfBirth")
+})
+@NamedEntityGraph(name = Doctor.WITH_APPOINTMENTS, attributeNodes = @NamedAttributeNode("appointments"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctors")
 @Getter
 @Setter
 @NoArgsConstructor
 public class Doctor {
+    public static final String WITH_APPOINTMENTS = "Doctor.withAppointments";
+
+    // Sequence ids with a pooled optimizer (50 ids per round-trip) so inserts can be JDBC batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "doctors_seq")
+    @SequenceGenerator(name = "doctors_seq", sequenceName = "doctors_seq", allocationSize = 50)
     private Integer id;
 
     @Column(nullable = false)
@@ -38,13 +51,20 @@ public class Doctor {
     @Column(nullable = false)
     private Speciality speciality;
 
+    // Checked by updateAll, which reads the doctors before writing them, and bumped by DoctorDAO.update's UPDATE
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
-    @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Loaded only on request, through the WITH_APPOINTMENTS graph or a JOIN FETCH
+    @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctor-appointments")
     private List<Appointment> appointments = new ArrayList<>();
 
     // Add constructor that takes DoctorDTO
@@ -1,11 +1,22 @@
 package dat.exceptions;
 
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import org.slf4j.Logger;
+
+/**
+ * An error answered with its status code and a Message body.
+ * ApiExceptions are control flow for client errors and never logged with a stack trace, so they don't
+ * record one, and exceptions for fixed messages can be kept in constants and thrown again.
+ */
 public class ApiException extends Exception{
 
     private final int statusCode;
+    // Serialized status and message, built on first use, racy but always the same value
+    private String jsonPrefix;
 
     public ApiException(int statusCode, String message) {
-        super(message);
+        super(message, null, false, false);
         this.statusCode = statusCode;
     }
 
@@ -13,4 +24,40 @@ public class ApiException extends Exception{
         return statusCode;
     }
 
+    public boolean isClientError() {
+        return statusCode >= 400 && statusCode < 500;
+    }
+
+    /**
+     * Logs the exception as the outcome of the operation. Client errors (4xx) are routine, a mistyped id
+     * or a failed validation, so they are logged at INFO and only server errors at ERROR.
+     */
+    public void log(Logger logger, String operation) {
+        if (isClientError()) {
+            logger.info("API Error in {}: {}", operation, getMessage());
+        } else {
+            logger.error("API Error in {}: {}", operation, getMessage());
+        }
+    }
+
+    /**
+     * The exception as a Message in JSON with the current timestamp, the same as Jackson would write.
+     * Only the timestamp is formatted per call, the rest is serialized once per exception.
+     */
+    public String toJson() {
+        String prefix = jsonPrefix;
+        if (prefix == null) {
+            prefix = Message.jsonPrefix(statusCode, getMessage());
+            jsonPrefix = prefix;
+        }
+        return prefix + Message.now() + "\"}";
+    }
+
+    /**
+     * Answers the request with the status code and the exception as a Message
+     */
+    public void respond(Context ctx) {
+        ctx.status(statusCode).contentType(ContentType.APPLICATION_JSON).result(toJson());
+    }
+
 }
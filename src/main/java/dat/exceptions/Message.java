@@ -4,7 +4,53 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public record Message(int status, String message, String timestamp) {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
     public Message(int status, String message) {
-        this(status, message, LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")));
+        this(status, message, now());
+    }
+
+    static String now() {
+        return LocalDateTime.now().format(TIMESTAMP_FORMAT);
+    }
+
+    /**
+     * The JSON of a message up to the timestamp value, {"status":404,"message":"...","timestamp":"
+     * Appending a timestamp and "} gives what Jackson writes for the Message.
+     */
+    static String jsonPrefix(int status, String message) {
+        StringBuilder json = new StringBuilder(message == null ? 48 : message.length() + 48);
+        json.append("{\"status\":").append(status).append(",\"message\":");
+        if (message == null) {
+            json.append("null");
+        } else {
+            json.append('"');
+            appendEscaped(json, message);
+            json.append('"');
+        }
+        return json.append(",\"timestamp\":\"").toString();
+    }
+
+    // Escapes like Jackson: quotes, backslashes and control characters, everything else as is
+    private static void appendEscaped(StringBuilder json, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                case '\b' -> json.append("\\b");
+                case '\f' -> json.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,12 @@
 package dat.routes;
 
+import dat.controllers.impl.AppointmentController;
+import dat.controllers.impl.AvailabilityController;
+import dat.controllers.impl.DoctorControllerAsync;
 import dat.controllers.impl.DoctorControllerDB;
+import dat.controllers.impl.StatisticsController;
 import io.javalin.apibuilder.EndpointGroup;
+import static dat.controllers.IAsyncController.handler;
 import static io.javalin.apibuilder.ApiBuilder.*;
 
 /**
@@ -11,6 +16,10 @@ import static io.javalin.apibuilder.ApiBuilder.*;
 public class Routes {
     // Replace mock controller with database controller
     private static final DoctorControllerDB doctorController = new DoctorControllerDB();
+    private static final DoctorControllerAsync asyncDoctorController = new DoctorControllerAsync(doctorController);
+    private static final AppointmentController appointmentController = new AppointmentController();
+    private static final AvailabilityController availabilityController = new AvailabilityController();
+    private static final StatisticsController statisticsController = new StatisticsController();
 
     public EndpointGroup getRoutes() {
         return () -> {
@@ -21,20 +30,78 @@ public class Routes {
                 // POST /api/doctors - Create new doctor
                 post(doctorController::create);
 
+                // Bulk endpoints, registered before "{id}" so "batch" is not taken for an id
+                post("batch", doctorController::createBatch);
+                put("batch", doctorController::updateBatch);
+                delete("batch", doctorController::deleteBatch);
+
+                // GET /api/doctors/query?speciality=&bornFrom=&graduatedFrom=&clinic=&sort=&fields= - Combined filters
+                get("query", doctorController::query);
+
+                // GET /api/doctors/search?q=&limit= - Type-ahead on doctor and clinic names
+                get("search", doctorController::search);
+
                 // GET /api/doctors/{id} - Get specific doctor
                 get("{id}", doctorController::read);
 
                 // PUT /api/doctors/{id} - Update doctor
                 put("{id}", doctorController::update);
 
+                // DELETE /api/doctors/{id} - Delete doctor
+                delete("{id}", doctorController::delete);
+
+                // GET /api/doctors/{id}/appointments?from=&to=&after=&limit= - A page of the doctor's schedule
+                get("{id}/appointments", appointmentController::readByDoctor);
+
+                // POST /api/doctors/{id}/appointments - Book an appointment with the doctor
+                post("{id}/appointments", appointmentController::create);
+
+                // GET /api/doctors/{id}/availability?from=&to=&slot=15m - Free slots of the doctor
+                get("{id}/availability", availabilityController::readByDoctor);
+
                 // GET /api/doctors/speciality/{speciality} - Get by speciality
                 get("speciality/{speciality}",
                     doctorController::readBySpeciality);
 
+                // GET /api/doctors/speciality/{speciality}/first-free-slot - Earliest free slot with any such doctor
+                get("speciality/{speciality}/first-free-slot",
+                    availabilityController::firstBySpeciality);
+
                 // GET /api/doctors/birthdate/range - Get by birthdate range
                 get("birthdate/range",
                     doctorController::readByBirthdateRange);
             });
+
+            path("appointments", () -> {
+                // GET /api/appointments/{id} - Get specific appointment
+                get("{id}", appointmentController::read);
+
+                // DELETE /api/appointments/{id} - Cancel appointment
+                delete("{id}", appointmentController::cancel);
+            });
+
+            // Same doctor endpoints served without blocking request threads on the database
+            path("async/doctors", () -> {
+                // GET /api/async/doctors?after=&limit= - Get a page of doctors
+                get(handler(asyncDoctorController::readAll));
+                post(handler(asyncDoctorController::create));
+                get("{id}", handler(asyncDoctorController::read));
+                put("{id}", handler(asyncDoctorController::update));
+                delete("{id}", handler(asyncDoctorController::delete));
+                get("speciality/{speciality}", handler(asyncDoctorController::readBySpeciality));
+                get("birthdate/range", handler(asyncDoctorController::readByBirthdateRange));
+            });
+
+            // GET /api/metrics - Request counts and latencies per route in Prometheus text format
+            get("metrics", statisticsController::metrics);
+
+            path("stats", () -> {
+                // GET /api/stats/cache - Second-level and query cache statistics
+                get("cache", statisticsController::cacheStatistics);
+
+                // GET /api/stats/pool - Connection pool occupancy and acquire latency
+                get("pool", statisticsController::poolStatistics);
+            });
         };
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package dat.utils;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AsyncAppender that, once its queue is past the discarding threshold, drops every event below ERROR,
+ * warnings included, and counts what it dropped. Logback's AsyncAppender keeps warnings, so a burst of
+ * them fills the queue and blocks request threads. Errors are never dropped, they wait for room.
+ */
+public class ErrorKeepingAsyncAppender extends AsyncAppender {
+    private final AtomicLong discarded = new AtomicLong();
+
+    /**
+     * Events dropped since startup
+     */
+    public long getDiscarded() {
+        return discarded.get();
+    }
+
+    // Only asked while the queue is past the threshold, so every true is a dropped event
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        if (event.getLevel().toInt() < Level.ERROR_INT) {
+            discarded.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+}
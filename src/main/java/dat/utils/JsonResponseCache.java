@@ -0,0 +1,157 @@
+package dat.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dat.exceptions.ApiException;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches serialized JSON response bodies and answers conditional requests.
+ * The strong ETag of a response is derived from the data version supplied by the DAO and
+ * the request path and query, so a matching If-None-Match gets a 304 without touching the
+ * database, and an unchanged version is served from the stored bytes.
+ */
+public class JsonResponseCache {
+    private final LoadingCache<String, CachedResponse> responses;
+    private final LongSupplier version;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Produces the response body, and may add headers that are cached along with it
+     */
+    @FunctionalInterface
+    public interface ResponseProducer {
+        Object produce(Map<String, String> headers) throws ApiException;
+    }
+
+    /**
+     * A serialized body and the headers cached with it
+     */
+    public record CachedResponse(byte[] body, Map<String, String> headers) {
+    }
+
+    /**
+     * The ETag and cache key of a request at the data version current when it arrived. Taken on the request
+     * thread, so the body can be loaded on another one and written once it is there.
+     */
+    public record Request(String etag, String key) {
+    }
+
+    // Carries a checked ApiException out of the cache loader
+    private static class ProducerException extends RuntimeException {
+        private final ApiException apiException;
+
+        ProducerException(ApiException apiException) {
+            super(apiException.getMessage(), null, false, false);
+            this.apiException = apiException;
+        }
+    }
+
+    public JsonResponseCache(String name, int maxEntries, LongSupplier version, ObjectMapper objectMapper) {
+        // Entries for older versions are never requested again and age out through LRU
+        this.responses = new LoadingCache<>(name, maxEntries, Duration.ofMinutes(30));
+        this.version = version;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Responds with 304 if the client already holds the current representation,
+     * otherwise tags the response with the current ETag
+     * @return true if the response was completed
+     */
+    public boolean notModified(Context ctx) {
+        String etag = etag(version.getAsLong(), requestKey(ctx));
+        ctx.header(Header.ETAG, etag);
+        if (matches(ctx.header(Header.IF_NONE_MATCH), etag)) {
+            ctx.status(304);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Responds with the cached body for the current version, producing and serializing it on a miss.
+     * Errors thrown by the producer are passed on and leave the response untagged.
+     */
+    public void respond(Context ctx, ResponseProducer producer) throws ApiException {
+        Request request = request(ctx);
+        if (notModified(ctx, request)) {
+            return;
+        }
+        write(ctx, request, load(request, producer));
+    }
+
+    public Request request(Context ctx) {
+        long currentVersion = version.getAsLong();
+        String key = requestKey(ctx);
+        return new Request(etag(currentVersion, key), currentVersion + " " + key);
+    }
+
+    /**
+     * Responds with 304 if the client already holds the representation the request is tagged with
+     * @return true if the response was completed
+     */
+    public boolean notModified(Context ctx, Request request) {
+        if (matches(ctx.header(Header.IF_NONE_MATCH), request.etag())) {
+            ctx.header(Header.ETAG, request.etag()).status(304);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * The cached response of the request, produced and serialized on a miss. Does not touch the Context.
+     */
+    public CachedResponse load(Request request, ResponseProducer producer) throws ApiException {
+        try {
+            return responses.get(request.key(), key -> serialize(producer));
+        } catch (ProducerException e) {
+            throw e.apiException;
+        }
+    }
+
+    public void write(Context ctx, Request request, CachedResponse response) {
+        response.headers().forEach(ctx::header);
+        ctx.header(Header.ETAG, request.etag()).status(200).contentType("application/json").result(response.body());
+    }
+
+    private CachedResponse serialize(ResponseProducer producer) {
+        try {
+            Map<String, String> headers = new HashMap<>();
+            byte[] body = objectMapper.writeValueAsBytes(producer.produce(headers));
+            return new CachedResponse(body, Map.copyOf(headers));
+        } catch (ApiException e) {
+            throw new ProducerException(e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    private static String etag(long version, String requestKey) {
+        return "\"" + Long.toHexString(version) + "-" + Integer.toHexString(requestKey.hashCode()) + "\"";
+    }
+
+    private static String requestKey(Context ctx) {
+        String query = ctx.queryString();
+        return query == null ? ctx.path() : ctx.path() + "?" + query;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals(etag) || trimmed.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
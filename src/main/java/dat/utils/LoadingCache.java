@@ -0,0 +1,162 @@
+package dat.utils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Small bounded in-memory cache with LRU eviction and a per-entry time to live.
+ * Concurrent misses for the same key share a single load, and a load that overlaps
+ * an invalidation of its key, or of the whole cache, is returned to its callers but never stored.
+ * @param <K> The type of the key
+ * @param <V> The type of the cached value
+ */
+public class LoadingCache<K, V> {
+    private final String name;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, Load<V>> loading = new ConcurrentHashMap<>();
+    private long invalidateAlls; // Guarded by entries
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    // An in-flight load, marked when its key is invalidated so that only loads of that key are discarded
+    private static final class Load<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private boolean invalidated; // Guarded by entries
+    }
+
+    public LoadingCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+        // Access ordered, so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, or loads it once for all concurrent callers asking for the same key.
+     * Null results are passed through without being cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        Load<V> load = new Load<>();
+        Load<V> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return await(inFlight.future);
+        }
+        CompletableFuture<V> future = load.future;
+
+        long invalidateAllsBeforeLoad;
+        synchronized (entries) {
+            invalidateAllsBeforeLoad = invalidateAlls;
+        }
+        try {
+            V value = loader.apply(key);
+            if (value != null) {
+                synchronized (entries) {
+                    if (!load.invalidated && invalidateAlls == invalidateAllsBeforeLoad) {
+                        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                        puts.increment();
+                    }
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    private V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt() > 0) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+            Load<V> load = loading.remove(key);
+            if (load != null) {
+                load.invalidated = true;
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidateAlls++;
+            entries.clear();
+        }
+        loading.clear();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+}
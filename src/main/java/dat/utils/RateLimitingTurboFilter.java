@@ -0,0 +1,136 @@
+package dat.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter that passes at most {@code maxPerInterval} events per logger and message format
+ * every {@code intervalMillis}, and denies the rest, so a burst of identical client errors is logged a
+ * few times instead of thousands. It runs before the event is created or its message formatted.
+ * Only events at or below {@code level} from loggers starting with {@code loggerPrefix} are limited,
+ * and the number of denied events is logged once the interval has passed: by the next event of the same
+ * logger and format, or, at most once per interval, by the next event of any logger, so a burst that
+ * stops is still reported.
+ */
+public class RateLimitingTurboFilter extends TurboFilter {
+    // Formats beyond this many are not limited, instead of growing the map without bound
+    private static final int MAX_KEYS = 1_000;
+
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong denied = new AtomicLong();
+    // When the windows of all keys are next checked for denied events to report
+    private final AtomicLong nextSweep = new AtomicLong();
+    // The logger of the filtered context, whose own warnings are above the limited level
+    private Logger reporter;
+    private int maxPerInterval = 10;
+    private long intervalMillis = 1_000;
+    private Level level = Level.INFO;
+    private String loggerPrefix = "";
+
+    private record Key(Logger logger, String format) {
+    }
+
+    // Events counted in the current interval of one key
+    private static final class Window {
+        private volatile long start;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger denied = new AtomicInteger();
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+
+    public void setMaxPerInterval(int maxPerInterval) {
+        this.maxPerInterval = Math.max(1, maxPerInterval);
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = Math.max(1, intervalMillis);
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    @Override
+    public void start() {
+        reporter = ((LoggerContext) getContext()).getLogger(RateLimitingTurboFilter.class);
+        super.start();
+    }
+
+    /**
+     * Events denied since startup
+     */
+    public long getDenied() {
+        return denied.get();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Level checks (isDebugEnabled() and the like) have no format, and disabled events are never counted
+        if (format == null) {
+            return FilterReply.NEUTRAL;
+        }
+        long now = System.currentTimeMillis();
+        long sweepAt = nextSweep.get();
+        if (now >= sweepAt && nextSweep.compareAndSet(sweepAt, now + intervalMillis)) {
+            windows.forEach((key, window) -> report(key, rollOver(window, now)));
+        }
+        if (level.toInt() > this.level.toInt()
+            || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        Key key = new Key(logger, format);
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= MAX_KEYS) {
+                return FilterReply.NEUTRAL;
+            }
+            window = windows.computeIfAbsent(key, k -> new Window(now));
+        }
+
+        report(key, rollOver(window, now));
+
+        if (window.count.incrementAndGet() <= maxPerInterval) {
+            return FilterReply.NEUTRAL;
+        }
+        window.denied.incrementAndGet();
+        denied.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    // Starts a new interval if the current one has passed, returning the events denied in the one that ended
+    private int rollOver(Window window, long now) {
+        if (now - window.start < intervalMillis) {
+            return 0;
+        }
+        synchronized (window) {
+            if (now - window.start < intervalMillis) {
+                return 0;
+            }
+            window.count.set(0);
+            window.start = now;
+            return window.denied.getAndSet(0);
+        }
+    }
+
+    private void report(Key key, int deniedInPrevious) {
+        if (deniedInPrevious > 0) {
+            reporter.warn("Dropped {} repeated log events from {}: \"{}\"", deniedInPrevious, key.logger().getName(), key.format());
+        }
+    }
+}
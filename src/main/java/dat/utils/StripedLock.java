@@ -0,0 +1,28 @@
+package dat.utils;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by hash, so work on the same key is serialized without a lock per key.
+ * Different keys may share a stripe, and then wait for each other as well.
+ */
+public class StripedLock {
+    private final ReentrantLock[] locks;
+
+    public StripedLock(int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripes must be a power of two: " + stripes);
+        }
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock get(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits, sequential ids would otherwise only differ in the low ones
+        hash ^= hash >>> 16;
+        return locks[hash & (locks.length - 1)];
+    }
+}
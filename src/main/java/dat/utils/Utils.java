@@ -1,10 +1,9 @@
 package dat.utils;
 
-import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import dat.exceptions.ApiException;
 import io.javalin.http.Context;
 
@@ -18,12 +17,24 @@ import java.util.Properties;
  * Purpose: Utility class for common functionality
  */
 public class Utils {
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+    // Shared, ApiExceptions carry no stack trace
+    private static final ApiException ID_NOT_POSITIVE = new ApiException(400, "ID must be a positive number");
 
-    public ObjectMapper getObjectMapper() {
+    /**
+     * The application's ObjectMapper, also used by Javalin for ctx.json and body parsing.
+     * It is shared because a mapper caches the serializers it builds, so a new one per call starts cold.
+     * Don't reconfigure it, take a writer or reader with the settings you need.
+     */
+    public static ObjectMapper getObjectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    private static ObjectMapper createObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false); // Ignore unknown properties in JSON
         objectMapper.registerModule(new JavaTimeModule()); // Serialize and deserialize java.time objects
-        objectMapper.writer(new DefaultPrettyPrinter());
+        objectMapper.registerModule(new BlackbirdModule()); // Generated accessors instead of reflection for getters, setters and constructors
         return objectMapper;
     }
 
@@ -47,15 +58,41 @@ public class Utils {
         }
     }
 
+    /**
+     * Parses a positive id. Checks the digits itself, Integer.parseInt would fill in the stack trace of a
+     * NumberFormatException for every malformed id.
+     */
+    public static int parseId(String idParam) throws ApiException {
+        int length = idParam.length();
+        boolean negative = length > 0 && idParam.charAt(0) == '-';
+        int start = length > 0 && (negative || idParam.charAt(0) == '+') ? 1 : 0;
+        if (start == length) {
+            throw new ApiException(400, "Invalid ID format: " + idParam);
+        }
+        long id = 0;
+        for (int i = start; i < length; i++) {
+            char c = idParam.charAt(i);
+            if (c < '0' || c > '9' || (id = id * 10 + (c - '0')) > Integer.MAX_VALUE + 1L) {
+                throw new ApiException(400, "Invalid ID format: " + idParam);
+            }
+        }
+        if (!negative && id > Integer.MAX_VALUE) {
+            throw new ApiException(400, "Invalid ID format: " + idParam);
+        }
+        if (negative || id == 0) {
+            throw ID_NOT_POSITIVE;
+        }
+        return (int) id;
+    }
+
     public static String convertToJsonMessage(Context ctx, String property, String message) {
         Map<String, String> msgMap = new HashMap<>();
         msgMap.put(property, message);
         msgMap.put("status", String.valueOf(ctx.status()));
         msgMap.put("timestamp", getCurrentTimestamp());
 
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
-            return objectMapper.writeValueAsString(msgMap);
+            return OBJECT_MAPPER.writeValueAsString(msgMap);
         } catch (Exception e) {
             return String.format("{\"error\": \"Could not convert message to JSON\", \"message\": \"%s\"}", message);
         }
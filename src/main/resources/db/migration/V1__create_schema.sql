@@ -0,0 +1,32 @@
+-- Schema as previously created by hbm2ddl.auto=update.
+-- Written with IF NOT EXISTS so it also applies to databases that hbm2ddl created before migrations were introduced.
+
+CREATE TABLE IF NOT EXISTS doctors (
+    id               INTEGER      NOT NULL PRIMARY KEY,
+    name             VARCHAR(255) NOT NULL,
+    dateOfBirth      DATE         NOT NULL,
+    yearOfGraduation INTEGER      NOT NULL,
+    nameOfClinic     VARCHAR(255) NOT NULL,
+    speciality       VARCHAR(255) NOT NULL,
+    createdAt        TIMESTAMP(6) NOT NULL,
+    updatedAt        TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS appointments (
+    id         INTEGER       NOT NULL PRIMARY KEY,
+    clientName VARCHAR(255)  NOT NULL,
+    date       DATE          NOT NULL,
+    time       TIME(6)       NOT NULL,
+    comment    VARCHAR(1000),
+    createdAt  TIMESTAMP(6)  NOT NULL,
+    updatedAt  TIMESTAMP(6)  NOT NULL,
+    doctor_id  INTEGER       NOT NULL REFERENCES doctors (id)
+);
+
+-- Ids are allocated 50 at a time (allocationSize in the entities).
+-- Older databases used identity columns, so start the sequences past the highest existing id.
+CREATE SEQUENCE IF NOT EXISTS doctors_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS appointments_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('doctors_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM doctors));
+SELECT setval('appointments_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM appointments));
@@ -0,0 +1,7 @@
+-- Indexes for the speciality and birthdate lookups and for loading a doctor's appointments.
+-- Names match the @Index definitions on the entities.
+
+-- Speciality lookups use the leading column, speciality + birthdate filters use both
+CREATE INDEX IF NOT EXISTS idx_doctors_speciality_date_of_birth ON doctors (speciality, dateOfBirth);
+CREATE INDEX IF NOT EXISTS idx_doctors_date_of_birth ON doctors (dateOfBirth);
+CREATE INDEX IF NOT EXISTS idx_appointments_doctor_id_date ON appointments (doctor_id, date);
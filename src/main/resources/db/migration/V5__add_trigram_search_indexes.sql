@@ -0,0 +1,17 @@
+-- Trigram indexes for SEARCH_BACKEND=postgres, which matches words anywhere in names and clinics with LIKE.
+-- The extension needs a privileged role. Without it the migration still succeeds and search falls back to a scan.
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION
+    WHEN insufficient_privilege OR undefined_file THEN
+        RAISE NOTICE 'pg_trgm is not available, doctor search in the database will not be indexed';
+END $$;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        CREATE INDEX IF NOT EXISTS idx_doctors_name_trgm ON doctors USING gin (lower(name) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_doctors_name_of_clinic_trgm ON doctors USING gin (lower(nameOfClinic) gin_trgm_ops);
+    END IF;
+END $$;
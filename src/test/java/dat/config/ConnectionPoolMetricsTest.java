@@ -0,0 +1,59 @@
+package dat.config;
+
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.PoolStatisticsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the EntityManagerFactory runs on HikariCP and reports pool metrics
+ */
+class ConnectionPoolMetricsTest {
+    private static EntityManagerFactory emf;
+
+    @BeforeAll
+    static void setUpClass() {
+        HibernateConfig.setTest(true);
+        emf = HibernateConfig.getEntityManagerFactoryForTest();
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test the pool is HikariCP with metrics installed")
+    void testMetricsInstalled() {
+        // Act
+        ConnectionPoolMetrics metrics = ConnectionPoolMetrics.of(emf);
+
+        // Assert
+        assertNotNull(metrics);
+        PoolStatisticsDTO stats = metrics.snapshot();
+        assertEquals("doctors-pool", stats.getPool());
+        assertEquals(4, stats.getMaxSize());
+    }
+
+    @Test
+    @DisplayName("Test connection acquisitions are recorded")
+    void testAcquisitionsRecorded() {
+        // Arrange
+        ConnectionPoolMetrics metrics = ConnectionPoolMetrics.of(emf);
+        long before = metrics.snapshot().getAcquisitions();
+
+        // Act
+        DoctorDAO.getInstance(emf).readAll();
+
+        // Assert
+        PoolStatisticsDTO stats = metrics.snapshot();
+        assertTrue(stats.getAcquisitions() > before);
+        assertEquals(0, stats.getActive());
+        assertEquals(0, stats.getTimeouts());
+        assertTrue(stats.getAcquireMaxMillis() >= stats.getAcquireMeanMillis());
+    }
+}
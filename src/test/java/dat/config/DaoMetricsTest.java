@@ -0,0 +1,106 @@
+package dat.config;
+
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.DoctorDTO;
+import dat.enums.Speciality;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the DAO operation metrics, recorded through the Hibernate session listener
+ */
+class DaoMetricsTest {
+    private static EntityManagerFactory emf;
+    private static DoctorDAO dao;
+
+    @BeforeAll
+    static void setUpClass() {
+        HibernateConfig.setTest(true);
+        emf = HibernateConfig.getEntityManagerFactoryForTest();
+        dao = DoctorDAO.getInstance(emf);
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Appointment").executeUpdate();
+            em.createQuery("DELETE FROM Doctor").executeUpdate();
+            em.getTransaction().commit();
+        }
+        dao.createAll(List.of(
+            new DoctorDTO(null, "Dr. Metrics One", LocalDate.of(1975, 4, 12), 2000, "Metrics Clinic", Speciality.PSYCHIATRY),
+            new DoctorDTO(null, "Dr. Metrics Two", LocalDate.of(1980, 8, 5), 2005, "Metrics Clinic", Speciality.PSYCHIATRY)));
+        emf.getCache().evictAll();
+        dao.evictAll();
+    }
+
+    private static String scrape() {
+        StringBuilder out = new StringBuilder();
+        DaoMetrics.getInstance().writePrometheus(out);
+        return out.toString();
+    }
+
+    // The value of a series, or 0 if it has not been recorded yet
+    private static double value(String text, String series) {
+        int start = text.indexOf(series + " ");
+        if (start < 0) {
+            return 0;
+        }
+        start += series.length() + 1;
+        return Double.parseDouble(text.substring(start, text.indexOf('\n', start)));
+    }
+
+    @Test
+    @DisplayName("Test a query records its rows, statements and phases")
+    void testQueryOperation() {
+        // Arrange
+        String before = scrape();
+
+        // Act
+        List<DoctorDTO> doctors = dao.doctorBySpeciality(Speciality.PSYCHIATRY, true);
+        String after = scrape();
+
+        // Assert
+        String labels = "{operation=\"readBySpecialityWithAppointments\"}";
+        assertEquals(2, doctors.size());
+        assertEquals(1, value(after, "dao_operation_seconds_count" + labels) - value(before, "dao_operation_seconds_count" + labels));
+        assertEquals(2, value(after, "dao_operation_rows_total" + labels) - value(before, "dao_operation_rows_total" + labels));
+        assertEquals(1, value(after, "dao_operation_statements_total" + labels) - value(before, "dao_operation_statements_total" + labels));
+        assertEquals(2, value(after, "dao_operation_entities_total" + labels) - value(before, "dao_operation_entities_total" + labels));
+        String sql = "dao_operation_phase_seconds_total{operation=\"readBySpecialityWithAppointments\",phase=\"sql\"}";
+        assertTrue(value(after, sql) > value(before, sql));
+    }
+
+    @Test
+    @DisplayName("Test a projection loads no entities and a bulk insert counts its batches")
+    void testProjectionAndBatches() {
+        // Arrange
+        String before = scrape();
+
+        // Act
+        dao.doctorByBirthdateRange(LocalDate.of(1970, 1, 1), LocalDate.of(1990, 1, 1));
+        dao.createAll(List.of(new DoctorDTO(null, "Dr. Metrics Three", LocalDate.of(1985, 1, 1), 2010, "Metrics Clinic", Speciality.SURGERY)));
+        String after = scrape();
+
+        // Assert
+        String range = "{operation=\"readByBirthdateRange\"}";
+        assertEquals(2, value(after, "dao_operation_rows_total" + range) - value(before, "dao_operation_rows_total" + range));
+        assertEquals(0, value(after, "dao_operation_entities_total" + range) - value(before, "dao_operation_entities_total" + range));
+        String createAll = "{operation=\"createAll\"}";
+        assertTrue(value(after, "dao_operation_statements_total" + createAll) > value(before, "dao_operation_statements_total" + createAll));
+    }
+}
@@ -0,0 +1,164 @@
+package dat.config;
+
+import dat.exceptions.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for DatabaseExecutor timeouts, write timeouts and overload rejection
+ */
+class DatabaseExecutorTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DatabaseExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    private String blockUntilReleased() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "late";
+    }
+
+    private static ApiException apiException(CompletableFuture<?> future) {
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        return assertInstanceOf(ApiException.class, e.getCause());
+    }
+
+    @Test
+    @DisplayName("Test results and ApiExceptions are passed through")
+    void testSupply() {
+        // Arrange
+        executor = new DatabaseExecutor("test-db", 1, 1, 5000);
+
+        // Act
+        CompletableFuture<String> ok = executor.supply(() -> "doctor");
+        CompletableFuture<String> notFound = executor.supply(() -> {
+            throw new ApiException(404, "Doctor not found with id: 1");
+        });
+
+        // Assert
+        assertEquals("doctor", ok.join());
+        assertEquals(404, apiException(notFound).getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Test a call that runs past its timeout fails with 503")
+    void testTimeout() {
+        // Arrange
+        executor = new DatabaseExecutor("test-db", 1, 1, 100);
+
+        // Act
+        CompletableFuture<String> slow = executor.supply(this::blockUntilReleased);
+
+        // Assert
+        ApiException e = apiException(slow);
+        assertEquals(503, e.getStatusCode());
+        assertTrue(e.getMessage().contains("timed out"));
+    }
+
+    @Test
+    @DisplayName("Test a read still queued at its timeout fails with 503, leaves the queue and never runs")
+    void testQueuedReadTimesOut() {
+        // Arrange - the only thread is busy past the timeout
+        executor = new DatabaseExecutor("test-db", 1, 1, 100);
+        executor.supply(this::blockUntilReleased);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // Act
+        CompletableFuture<String> queued = executor.supply(() -> {
+            ran.set(true);
+            return "doctor";
+        });
+
+        // Assert
+        assertEquals(503, apiException(queued).getStatusCode());
+        assertEquals(0, executor.getQueueSize());
+        release.countDown();
+        // Runs on the single thread after the blocked call, where the queued read would have run
+        assertEquals("after", executor.supply(() -> "after").join());
+        assertFalse(ran.get());
+    }
+
+    @Test
+    @DisplayName("Test work beyond the threads and queue is rejected with 503 instead of waiting")
+    void testRejectWhenSaturated() {
+        // Arrange - one busy thread and one queued call fill the executor
+        executor = new DatabaseExecutor("test-db", 1, 1, 5000);
+        CompletableFuture<String> running = executor.supply(this::blockUntilReleased);
+        CompletableFuture<String> queued = executor.supply(this::blockUntilReleased);
+
+        // Act
+        long start = System.nanoTime();
+        CompletableFuture<String> rejected = executor.supply(() -> "too many");
+
+        // Assert
+        assertTrue(rejected.isDone());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(503, apiException(rejected).getStatusCode());
+        release.countDown();
+        assertEquals("late", running.join());
+        assertEquals("late", queued.join());
+    }
+
+    @Test
+    @DisplayName("Test a write that runs past its timeout is waited for instead of failing with 503")
+    void testWriteOutlivesTimeout() {
+        // Arrange
+        executor = new DatabaseExecutor("test-db", 1, 1, 100);
+
+        // Act
+        long start = System.nanoTime();
+        CompletableFuture<String> write = executor.write(() -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "written";
+        });
+
+        // Assert
+        assertEquals("written", write.join());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    @DisplayName("Test a write still queued at its timeout fails with 503 and never runs")
+    void testQueuedWriteTimesOut() {
+        // Arrange - the only thread is busy past the timeout
+        executor = new DatabaseExecutor("test-db", 1, 1, 100);
+        executor.supply(this::blockUntilReleased);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // Act
+        CompletableFuture<String> queued = executor.write(() -> {
+            ran.set(true);
+            return "written";
+        });
+
+        // Assert
+        ApiException e = apiException(queued);
+        assertEquals(503, e.getStatusCode());
+        assertTrue(e.getMessage().contains("nothing was changed"));
+        release.countDown();
+        // The queued write is dequeued before this call, which waits behind it on the single thread
+        assertEquals("after", executor.supply(() -> "after").join());
+        assertFalse(ran.get());
+    }
+}
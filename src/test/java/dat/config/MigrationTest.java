@@ -0,0 +1,132 @@
+package dat.config;
+
+import dat.dtos.AppointmentDTO;
+import dat.dtos.DoctorDTO;
+import dat.entities.Appointment;
+import dat.entities.Doctor;
+import dat.enums.Speciality;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies the Flyway migrations to an empty schema in the test database,
+ * and starts Hibernate on it the way deployed mode does
+ */
+class MigrationTest {
+    private static final String SCHEMA = "migration_test";
+    private static EntityManagerFactory emf;
+    private static String url;
+
+    @BeforeAll
+    static void setUpClass() {
+        // The test EntityManagerFactory keeps the database container running and tells us its URL
+        HibernateConfig.setTest(true);
+        emf = HibernateConfig.getEntityManagerFactoryForTest();
+        url = (String) emf.getProperties().get("hibernate.connection.url");
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    // Every test migrates an empty schema
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "postgres", "postgres");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    private static Flyway flyway() {
+        return Flyway.configure()
+            .dataSource(url, "postgres", "postgres")
+            .schemas(SCHEMA)
+            .load();
+    }
+
+    @Test
+    @DisplayName("Test migrations create the tables, sequences and indexes, and are idempotent")
+    void testMigrate() throws SQLException {
+        // Act
+        MigrateResult first = flyway().migrate();
+        MigrateResult second = flyway().migrate();
+
+        // Assert
+        assertTrue(first.migrationsExecuted >= 5);
+        assertEquals(0, second.migrationsExecuted);
+        try (Connection connection = DriverManager.getConnection(url, "postgres", "postgres")) {
+            Set<String> indexes = names(connection, "SELECT indexname FROM pg_indexes WHERE schemaname = ?");
+            assertTrue(indexes.contains("idx_doctors_speciality_date_of_birth"));
+            assertTrue(indexes.contains("idx_doctors_date_of_birth"));
+            assertTrue(indexes.contains("uk_appointments_doctor_id_date_time"));
+            assertFalse(indexes.contains("idx_appointments_doctor_id_date"));
+            assertFalse(indexes.contains("idx_appointments_doctor_id_date_time"));
+
+            Set<String> sequences = names(connection, "SELECT sequencename FROM pg_sequences WHERE schemaname = ?");
+            assertTrue(sequences.contains("doctors_seq"));
+            assertTrue(sequences.contains("appointments_seq"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test Hibernate validates the entities against the migrated schema, as in deployed mode")
+    void testDeployedModeValidatesSchema() throws SQLException {
+        // Arrange - the container's own JDBC URL, with the migrated schema as the connection's schema
+        String jdbcUrl;
+        try (Connection connection = DriverManager.getConnection(url, "postgres", "postgres")) {
+            jdbcUrl = connection.getMetaData().getURL();
+        }
+        String connectionString = jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+
+        // Act - migrates, then fails with a SchemaManagementException if a mapped table, column, type or sequence is off
+        EntityManagerFactory deployed = HibernateConfig.createDeployedEMF(connectionString, "postgres", "postgres");
+
+        // Assert - ids come from the migrated sequences, and versions start at 0
+        try (EntityManager em = deployed.createEntityManager()) {
+            em.getTransaction().begin();
+            Doctor doctor = new Doctor(new DoctorDTO(null, "Dr. Deployed", LocalDate.of(1975, 4, 12), 2000, "Test Clinic", Speciality.SURGERY));
+            Appointment appointment = new Appointment(new AppointmentDTO(null, null, "Client", LocalDate.of(2030, 1, 7), LocalTime.of(9, 0), null));
+            doctor.addAppointment(appointment);
+            em.persist(doctor);
+            em.getTransaction().commit();
+            assertNotNull(doctor.getId());
+            assertEquals(0L, doctor.getVersion());
+            assertEquals(0L, appointment.getVersion());
+        } finally {
+            deployed.close();
+        }
+    }
+
+    private static Set<String> names(Connection connection, String sql) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, SCHEMA);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+}
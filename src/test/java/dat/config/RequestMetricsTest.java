@@ -0,0 +1,72 @@
+package dat.config;
+
+import io.javalin.http.HandlerType;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the per-route request metrics and their Prometheus output
+ */
+class RequestMetricsTest {
+    private static final String ROUTE = "/test-metrics/{id}";
+    private static final String LABELS = "method=\"GET\",route=\"" + ROUTE + "\"";
+
+    private static String scrape() {
+        StringBuilder out = new StringBuilder();
+        RequestMetrics.getInstance().writePrometheus(out);
+        return out.toString();
+    }
+
+    @Test
+    @DisplayName("Test latencies, counts and status classes are reported per route")
+    void testRecordAndScrape() {
+        // Arrange
+        RequestMetrics metrics = RequestMetrics.getInstance();
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(HandlerType.GET, ROUTE, i <= 90 ? 200 : 404, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        metrics.record(HandlerType.POST, ROUTE, 500, TimeUnit.MILLISECONDS.toNanos(5));
+
+        // Act
+        String text = scrape();
+
+        // Assert
+        assertTrue(text.contains("# TYPE http_server_requests_seconds summary"));
+        assertTrue(text.contains("http_server_requests_seconds_count{" + LABELS + "} 100\n"));
+        assertTrue(text.contains("http_server_requests_seconds_sum{" + LABELS + "} 5.05\n"));
+        assertTrue(text.contains("http_server_requests_total{" + LABELS + ",status=\"2xx\"} 90\n"));
+        assertTrue(text.contains("http_server_requests_total{" + LABELS + ",status=\"4xx\"} 10\n"));
+        assertTrue(text.contains("http_server_requests_total{method=\"POST\",route=\"" + ROUTE + "\",status=\"5xx\"} 1\n"));
+        // Two significant digits, the median of 1..100 ms is reported within 1%
+        double median = quantile(text, "0.5");
+        assertEquals(0.050, median, 0.0005);
+        assertEquals(0.100, quantile(text, "0.999"), 0.001);
+    }
+
+    @Test
+    @DisplayName("Test repeated scrapes keep counting requests recorded in between")
+    void testCumulativeScrapes() {
+        // Arrange
+        RequestMetrics metrics = RequestMetrics.getInstance();
+        String route = "/test-metrics/cumulative";
+        metrics.record(HandlerType.GET, route, 200, 1_000_000);
+        scrape();
+
+        // Act
+        metrics.record(HandlerType.GET, route, 200, 2_000_000);
+        String text = scrape();
+
+        // Assert
+        assertTrue(text.contains("http_server_requests_seconds_count{method=\"GET\",route=\"" + route + "\"} 2\n"));
+        assertTrue(text.contains("http_server_requests_seconds_max{method=\"GET\",route=\"" + route + "\"} 0.002"));
+    }
+
+    private static double quantile(String text, String quantile) {
+        String prefix = "http_server_requests_seconds{" + LABELS + ",quantile=\"" + quantile + "\"} ";
+        int start = text.indexOf(prefix) + prefix.length();
+        return Double.parseDouble(text.substring(start, text.indexOf('\n', start)));
+    }
+}
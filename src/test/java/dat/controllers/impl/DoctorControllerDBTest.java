@@ -0,0 +1,72 @@
+package dat.controllers.impl;
+
+import dat.config.ApplicationConfig;
+import dat.config.HibernateConfig;
+import dat.daos.impl.DoctorDAO;
+import dat.dtos.DoctorDTO;
+import dat.enums.Speciality;
+import io.javalin.Javalin;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the batch endpoints of DoctorControllerDB, through HTTP
+ */
+class DoctorControllerDBTest {
+    private static Javalin app;
+    private static DoctorDAO dao;
+    private DoctorDTO doctor;
+
+    @BeforeAll
+    static void setUpClass() {
+        HibernateConfig.setTest(true);
+        app = ApplicationConfig.startServer(0);
+        RestAssured.baseURI = "http://localhost:" + app.port() + "/api";
+        dao = DoctorDAO.getInstance(HibernateConfig.getEntityManagerFactory());
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        app.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        doctor = dao.create(new DoctorDTO(null, "Dr. Batch", LocalDate.of(1980, 1, 1), 2005, "Batch Clinic", Speciality.SURGERY));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dao.delete(doctor.getId());
+    }
+
+    @Test
+    @DisplayName("Test a batch delete with a null or negative id is rejected before anything is deleted")
+    void testDeleteBatchRejectsInvalidIds() {
+        for (String ids : new String[]{"[" + doctor.getId() + ", null]", "[" + doctor.getId() + ", -1]"}) {
+            given().contentType(ContentType.JSON).body(ids)
+                .when().delete("/doctors/batch")
+                .then().statusCode(400).body("message", containsString("Doctor 1: ID must be a positive number"));
+        }
+
+        assertNotNull(dao.read(doctor.getId()));
+    }
+
+    @Test
+    @DisplayName("Test a batch delete with valid ids deletes the doctors")
+    void testDeleteBatch() {
+        given().contentType(ContentType.JSON).body("[" + doctor.getId() + "]")
+            .when().delete("/doctors/batch")
+            .then().statusCode(200).body("deleted", equalTo(1));
+
+        assertNull(dao.read(doctor.getId()));
+    }
+}
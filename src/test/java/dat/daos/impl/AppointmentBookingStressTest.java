@@ -0,0 +1,227 @@
+package dat.daos.impl;
+
+import dat.config.HibernateConfig;
+import dat.dtos.AppointmentDTO;
+import dat.dtos.DoctorDTO;
+import dat.entities.Appointment;
+import dat.entities.Doctor;
+import dat.enums.Speciality;
+import dat.exceptions.ApiException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires thousands of concurrent bookings and updates at a few doctors and checks that
+ * no slot is booked twice, every losing booking gets a 409 and no update is lost
+ */
+class AppointmentBookingStressTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 2, 4);
+    private static final int THREADS = 32;
+    private static final int DOCTORS = 3;
+    private static final int SLOTS = 8;
+    private static final int ATTEMPTS = 3000;
+
+    private static EntityManagerFactory emf;
+    private static AppointmentDAO appointmentDAO;
+    private static DoctorDAO doctorDAO;
+    private final List<Integer> doctorIds = new ArrayList<>();
+    private ExecutorService executor;
+
+    @BeforeAll
+    static void setUpClass() {
+        HibernateConfig.setTest(true);
+        emf = HibernateConfig.getEntityManagerFactoryForTest();
+        appointmentDAO = AppointmentDAO.getInstance(emf);
+        doctorDAO = DoctorDAO.getInstance(emf);
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Appointment").executeUpdate();
+            em.createQuery("DELETE FROM Doctor").executeUpdate();
+            for (int i = 0; i < DOCTORS; i++) {
+                Doctor doctor = new Doctor(new DoctorDTO(null, "Dr. Busy " + i, LocalDate.of(1975, 4, 12), 2000, "Test Clinic", Speciality.SURGERY));
+                em.persist(doctor);
+                doctorIds.add(doctor.getId());
+            }
+            em.getTransaction().commit();
+        }
+        emf.getCache().evictAll();
+        doctorDAO.evictAll();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static AppointmentDTO appointment(String client, LocalTime time) {
+        return new AppointmentDTO(null, null, client, DAY, time, null);
+    }
+
+    @Test
+    @DisplayName("Test concurrent bookings for the same slots succeed exactly once per slot")
+    void testConcurrentBookings() throws Exception {
+        // Arrange
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        Map<String, Integer> winners = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act - every attempt targets one of DOCTORS * SLOTS slots
+        for (int i = 0; i < ATTEMPTS; i++) {
+            int attempt = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                Integer doctorId = doctorIds.get(attempt % DOCTORS);
+                LocalTime time = LocalTime.of(9, 0).plusMinutes(15L * (attempt / DOCTORS % SLOTS));
+                try {
+                    appointmentDAO.create(doctorId, appointment("Client " + attempt, time));
+                    booked.incrementAndGet();
+                    assertNull(winners.put(doctorId + " " + time, attempt), "Slot booked twice");
+                } catch (ApiException e) {
+                    assertEquals(409, e.getStatusCode());
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertEquals(DOCTORS * SLOTS, booked.get());
+        assertEquals(ATTEMPTS - DOCTORS * SLOTS, conflicts.get());
+        for (Integer doctorId : doctorIds) {
+            assertEquals(SLOTS, appointmentDAO.readByDoctor(doctorId, DAY, DAY, null, 100).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Test the unique constraint rejects a double booking that bypasses the DAO")
+    void testUniqueConstraint() throws ApiException {
+        // Arrange
+        Integer doctorId = doctorIds.get(0);
+        appointmentDAO.create(doctorId, appointment("First", LocalTime.of(9, 0)));
+
+        // Act & Assert
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            Appointment duplicate = new Appointment(appointment("Second", LocalTime.of(9, 0)));
+            duplicate.setDoctor(em.find(Doctor.class, doctorId));
+            em.persist(duplicate);
+            assertThrows(PersistenceException.class, em::flush);
+            em.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    @DisplayName("Test deleting a doctor while an appointment for it is being booked retries and deletes both")
+    void testDeleteDuringBooking() throws Exception {
+        // Arrange - a booking that has inserted its appointment but not committed yet
+        Integer doctorId = doctorIds.get(0);
+        try (EntityManager booking = emf.createEntityManager()) {
+            booking.getTransaction().begin();
+            Appointment appointment = new Appointment(appointment("Late", LocalTime.of(9, 0)));
+            appointment.setDoctor(booking.find(Doctor.class, doctorId));
+            booking.persist(appointment);
+            booking.flush();
+
+            // Act - the delete misses the uncommitted appointment and waits on the doctor row
+            Future<Boolean> delete = executor.submit(() -> doctorDAO.delete(doctorId));
+            awaitLockWait();
+            booking.getTransaction().commit();
+
+            // Assert - the doctor's DELETE failed on the committed appointment and the retry removed both
+            assertTrue(delete.get(30, TimeUnit.SECONDS));
+        }
+        try (EntityManager em = emf.createEntityManager()) {
+            assertNull(em.find(Doctor.class, doctorId));
+            assertEquals(0L, em.createQuery("SELECT COUNT(a) FROM Appointment a WHERE a.doctor.id = :id", Long.class)
+                .setParameter("id", doctorId)
+                .getSingleResult());
+        }
+    }
+
+    // Waits until a statement in the database is blocked on a lock
+    private static void awaitLockWait() throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            try (EntityManager em = emf.createEntityManager()) {
+                Number waiting = (Number) em.createNativeQuery(
+                        "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'")
+                    .getSingleResult();
+                if (waiting.intValue() > 0) {
+                    return;
+                }
+            }
+            Thread.sleep(10);
+        }
+        fail("No statement waited for a lock");
+    }
+
+    @Test
+    @DisplayName("Test concurrent updates of one doctor are all applied, one after the other")
+    void testConcurrentUpdates() throws Exception {
+        // Arrange
+        Integer doctorId = doctorIds.get(0);
+        AtomicInteger updated = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 400; i++) {
+            int attempt = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                DoctorDTO update = new DoctorDTO(null, "Dr. Renamed " + attempt, LocalDate.of(1975, 4, 12), 2000, "Test Clinic", Speciality.SURGERY);
+                assertNotNull(doctorDAO.update(doctorId, update));
+                updated.incrementAndGet();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+
+        // Assert - no update was lost, the version counts every one of them
+        assertEquals(400, updated.get());
+        try (EntityManager em = emf.createEntityManager()) {
+            Long version = em.createQuery("SELECT d.version FROM Doctor d WHERE d.id = :id", Long.class)
+                .setParameter("id", doctorId)
+                .getSingleResult();
+            assertEquals(400, version.intValue());
+        }
+    }
+}
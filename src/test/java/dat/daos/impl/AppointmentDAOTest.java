@@ -0,0 +1,197 @@
+package dat.daos.impl;
+
+import dat.config.HibernateConfig;
+import dat.dtos.AppointmentDTO;
+import dat.dtos.DoctorDTO;
+import dat.entities.Doctor;
+import dat.enums.Speciality;
+import dat.exceptions.ApiException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for AppointmentDAO schedule queries and writes
+ */
+class AppointmentDAOTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 10);
+
+    private static EntityManagerFactory emf;
+    private static AppointmentDAO dao;
+    private static DoctorDAO doctorDAO;
+    private Integer doctorId;
+
+    @BeforeAll
+    static void setUpClass() {
+        HibernateConfig.setTest(true);
+        emf = HibernateConfig.getEntityManagerFactoryForTest();
+        dao = AppointmentDAO.getInstance(emf);
+        doctorDAO = DoctorDAO.getInstance(emf);
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Appointment").executeUpdate();
+            em.createQuery("DELETE FROM Doctor").executeUpdate();
+            Doctor doctor = new Doctor(new DoctorDTO(null, "Dr. Schedule", LocalDate.of(1975, 4, 12), 2000, "Test Clinic", Speciality.SURGERY));
+            em.persist(doctor);
+            em.getTransaction().commit();
+            doctorId = doctor.getId();
+        }
+        emf.getCache().evictAll();
+        doctorDAO.evictAll();
+    }
+
+    private static AppointmentDTO appointment(LocalDate date, LocalTime time) {
+        return new AppointmentDTO(null, null, "Client " + date + " " + time, date, time, null);
+    }
+
+    @Test
+    @DisplayName("Test creating and reading an appointment")
+    void testCreateAndRead() throws ApiException {
+        // Act
+        AppointmentDTO created = dao.create(doctorId, appointment(DAY, LocalTime.of(9, 0)));
+        AppointmentDTO found = dao.read(created.getId());
+
+        // Assert
+        assertNotNull(found);
+        assertEquals(doctorId, found.getDoctorId());
+        assertEquals(LocalTime.of(9, 0), found.getTime());
+        assertNull(dao.read(Integer.MAX_VALUE));
+        assertNull(dao.create(Integer.MAX_VALUE, appointment(DAY, LocalTime.of(10, 0))));
+    }
+
+    @Test
+    @DisplayName("Test booking with a doctor deleted after the doctor was found is answered as a missing doctor")
+    void testCreateWhileDoctorDeleted() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (EntityManager deleting = emf.createEntityManager()) {
+            // Arrange - the doctor's row is deleted but not committed, the booking still finds the doctor
+            deleting.getTransaction().begin();
+            deleting.createQuery("DELETE FROM Doctor d WHERE d.id = :id").setParameter("id", doctorId).executeUpdate();
+
+            // Act - the insert's foreign key check waits for the delete, which then commits
+            Future<AppointmentDTO> booking = executor.submit(() -> dao.create(doctorId, appointment(DAY, LocalTime.of(9, 0))));
+            awaitLockWait();
+            deleting.getTransaction().commit();
+
+            // Assert
+            assertNull(booking.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test a doctor's schedule is limited to the window and ordered by date and time")
+    void testReadByDoctorWindow() throws ApiException {
+        // Arrange
+        dao.create(doctorId, appointment(DAY.plusDays(1), LocalTime.of(8, 0)));
+        dao.create(doctorId, appointment(DAY, LocalTime.of(14, 0)));
+        dao.create(doctorId, appointment(DAY, LocalTime.of(9, 0)));
+        dao.create(doctorId, appointment(DAY.plusDays(5), LocalTime.of(9, 0)));
+
+        // Act
+        List<AppointmentDTO> schedule = dao.readByDoctor(doctorId, DAY, DAY.plusDays(1), null, 10);
+
+        // Assert
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(14, 0), LocalTime.of(8, 0)),
+            schedule.stream().map(AppointmentDTO::getTime).toList());
+    }
+
+    @Test
+    @DisplayName("Test paging through a schedule with the keyset cursor visits every appointment once")
+    void testReadByDoctorPaged() throws ApiException {
+        // Arrange
+        List<Integer> expected = new ArrayList<>();
+        for (int day = 0; day < 3; day++) {
+            for (int hour = 8; hour < 12; hour++) {
+                expected.add(dao.create(doctorId, appointment(DAY.plusDays(day), LocalTime.of(hour, 0))).getId());
+            }
+        }
+
+        // Act
+        List<Integer> seen = new ArrayList<>();
+        AppointmentDAO.After after = null;
+        List<AppointmentDTO> page;
+        do {
+            page = dao.readByDoctor(doctorId, DAY, DAY.plusDays(2), after, 5);
+            page.forEach(a -> seen.add(a.getId()));
+            if (!page.isEmpty()) {
+                AppointmentDTO last = page.get(page.size() - 1);
+                after = new AppointmentDAO.After(last.getDate(), last.getTime(), last.getId());
+            }
+        } while (page.size() == 5);
+
+        // Assert
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    @DisplayName("Test cancelling removes the appointment from the doctor's cached appointments")
+    void testCancel() throws ApiException {
+        // Arrange
+        AppointmentDTO created = dao.create(doctorId, appointment(DAY, LocalTime.of(9, 0)));
+        long versionBefore = doctorDAO.getVersion();
+        assertEquals(1, doctorDAO.read(doctorId, true).getAppointments().size());
+
+        // Act
+        boolean cancelled = dao.cancel(created.getId());
+
+        // Assert
+        assertTrue(cancelled);
+        assertFalse(dao.cancel(created.getId()));
+        assertNull(dao.read(created.getId()));
+        assertNull(doctorDAO.read(doctorId, true).getAppointments());
+        assertTrue(doctorDAO.getVersion() > versionBefore);
+    }
+
+    @Test
+    @DisplayName("Test a new appointment shows up in a doctor read with appointments")
+    void testCreateEvictsDoctor() throws ApiException {
+        // Arrange
+        assertNull(doctorDAO.read(doctorId, true).getAppointments());
+
+        // Act
+        dao.create(doctorId, appointment(DAY, LocalTime.of(9, 0)));
+
+        // Assert
+        assertEquals(1, doctorDAO.read(doctorId, true).getAppointments().size());
+    }
+
+    // Waits until a statement in the database is blocked on a lock
+    private static void awaitLockWait() throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            try (EntityManager em = emf.createEntityManager()) {
+                Number waiting = (Number) em.createNativeQuery(
+                        "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'")
+                    .getSingleResult();
+                if (waiting.intValue() > 0) {
+                    return;
+                }
+            }
+            Thread.sleep(10);
+        }
+        fail("No statement waited for a lock");
+    }
+}
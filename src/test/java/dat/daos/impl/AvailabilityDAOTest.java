@@ -0,0 +1,258 @@
+package dat.daos.impl;
+
+import dat.config.HibernateConfig;
+import dat.dtos.AppointmentDTO;
+import dat.dtos.DoctorDTO;
+import dat.dtos.SlotDTO;
+import dat.entities.Appointment;
+import dat.entities.Doctor;
+import dat.enums.Speciality;
+import dat.exceptions.ApiException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the availability bitmaps, and that bookings and cancellations keep them current
+ */
+class AvailabilityDAOTest {
+    // A Monday, far enough ahead that no slot has started yet
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private static EntityManagerFactory emf;
+    private static AvailabilityDAO dao;
+    private static AppointmentDAO appointmentDAO;
+    private static DoctorDAO doctorDAO;
+    private Integer surgeon1;
+    private Integer surgeon2;
+
+    @BeforeAll
+    static void setUpClass() {
+        HibernateConfig.setTest(true);
+        emf = HibernateConfig.getEntityManagerFactoryForTest();
+        dao = AvailabilityDAO.getInstance(emf);
+        appointmentDAO = AppointmentDAO.getInstance(emf);
+        doctorDAO = DoctorDAO.getInstance(emf);
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Appointment").executeUpdate();
+            em.createQuery("DELETE FROM Doctor").executeUpdate();
+            Doctor first = new Doctor(new DoctorDTO(null, "Dr. First", LocalDate.of(1975, 4, 12), 2000, "Test Clinic", Speciality.SURGERY));
+            Doctor second = new Doctor(new DoctorDTO(null, "Dr. Second", LocalDate.of(1980, 8, 5), 2005, "Test Clinic", Speciality.SURGERY));
+            em.persist(first);
+            em.persist(second);
+            em.getTransaction().commit();
+            surgeon1 = first.getId();
+            surgeon2 = second.getId();
+        }
+        emf.getCache().evictAll();
+        doctorDAO.evictAll();
+    }
+
+    private static void book(Integer doctorId, LocalDate date, LocalTime time) throws ApiException {
+        appointmentDAO.create(doctorId, new AppointmentDTO(null, null, "Client", date, time, null));
+    }
+
+    private static List<LocalTime> times(List<SlotDTO> slots) {
+        return slots.stream().map(SlotDTO::getTime).toList();
+    }
+
+    @Test
+    @DisplayName("Test a free working day has every slot from opening to closing, weekends have none")
+    void testFreeDay() {
+        // Act
+        List<SlotDTO> quarterHours = dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000);
+        List<SlotDTO> hours = dao.freeSlots(surgeon1, MONDAY, MONDAY, 60, 1000);
+        List<SlotDTO> weekend = dao.freeSlots(surgeon1, MONDAY.plusDays(5), MONDAY.plusDays(6), 15, 1000);
+
+        // Assert
+        assertEquals(AvailabilityDAO.UNITS_PER_DAY, quarterHours.size());
+        assertEquals(AvailabilityDAO.OPENING, quarterHours.get(0).getTime());
+        assertEquals(LocalTime.of(15, 45), quarterHours.get(quarterHours.size() - 1).getTime());
+        assertEquals(List.of(LocalTime.of(8, 0), LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(11, 0),
+            LocalTime.of(12, 0), LocalTime.of(13, 0), LocalTime.of(14, 0), LocalTime.of(15, 0)), times(hours));
+        assertTrue(weekend.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test bookings made after loading remove the slots they overlap")
+    void testBookingUpdatesBitmap() throws ApiException {
+        // Arrange - load the schedule first
+        assertEquals(16, dao.freeSlots(surgeon1, MONDAY, MONDAY, 30, 1000).size());
+
+        // Act
+        book(surgeon1, MONDAY, LocalTime.of(9, 20));
+
+        // Assert - 09:20 falls in the 09:15 unit, which blocks the 09:00 half hour
+        List<LocalTime> halfHours = times(dao.freeSlots(surgeon1, MONDAY, MONDAY, 30, 1000));
+        assertEquals(15, halfHours.size());
+        assertFalse(halfHours.contains(LocalTime.of(9, 0)));
+        assertTrue(halfHours.contains(LocalTime.of(9, 30)));
+        List<LocalTime> quarterHours = times(dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000));
+        assertTrue(quarterHours.contains(LocalTime.of(9, 0)));
+        assertFalse(quarterHours.contains(LocalTime.of(9, 15)));
+    }
+
+    @Test
+    @DisplayName("Test a booking that races the first load of a schedule is never lost")
+    void testBookingDuringLoad() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Every unit of the day is booked while the doctor's schedule is being loaded
+            for (int unit = 0; unit < AvailabilityDAO.UNITS_PER_DAY; unit++) {
+                // Arrange
+                LocalTime time = AvailabilityDAO.OPENING.plusMinutes((long) unit * AvailabilityDAO.UNIT_MINUTES);
+                AvailabilityDAO.forget(surgeon1);
+                CountDownLatch start = new CountDownLatch(1);
+
+                // Act
+                Future<?> load = executor.submit(() -> {
+                    start.await();
+                    return dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000);
+                });
+                Future<?> booking = executor.submit(() -> {
+                    start.await();
+                    book(surgeon1, MONDAY, time);
+                    return null;
+                });
+                start.countDown();
+                load.get(10, TimeUnit.SECONDS);
+                booking.get(10, TimeUnit.SECONDS);
+
+                // Assert - whichever schedule was kept has the booking
+                assertFalse(times(dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000)).contains(time), "Lost booking at " + time);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test a schedule load is kept when another doctor gets a booking meanwhile")
+    void testOtherDoctorBookedDuringLoad() throws Exception {
+        // Arrange - the appointments table is locked, so the load of surgeon1's schedule waits for it
+        AvailabilityDAO.forget(surgeon1);
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (EntityManager lock = emf.createEntityManager()) {
+            lock.getTransaction().begin();
+            lock.createNativeQuery("LOCK TABLE appointments IN ACCESS EXCLUSIVE MODE").executeUpdate();
+            Future<?> load = executor.submit(() -> dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000));
+            awaitLockWait();
+
+            // Act - surgeon2's booking is reported while the load runs
+            AvailabilityDAO.booked(surgeon2, MONDAY, LocalTime.of(9, 0));
+            lock.getTransaction().commit();
+            load.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert - surgeon1's schedule was stored, so it is read again without a query
+        statistics.clear();
+        dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000);
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Test a cancellation frees its unit only when no other appointment shares it")
+    void testCancelUpdatesBitmap() throws ApiException {
+        // Arrange
+        book(surgeon1, MONDAY, LocalTime.of(10, 0));
+        AppointmentDTO sharing = appointmentDAO.create(surgeon1, new AppointmentDTO(null, null, "Client", MONDAY, LocalTime.of(10, 5), null));
+        dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000);
+        Integer first = appointmentDAO.readByDoctor(surgeon1, MONDAY, MONDAY, null, 1).get(0).getId();
+
+        // Act
+        appointmentDAO.cancel(sharing.getId());
+
+        // Assert
+        assertFalse(times(dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000)).contains(LocalTime.of(10, 0)));
+
+        // Act
+        appointmentDAO.cancel(first);
+
+        // Assert
+        assertTrue(times(dao.freeSlots(surgeon1, MONDAY, MONDAY, 15, 1000)).contains(LocalTime.of(10, 0)));
+    }
+
+    @Test
+    @DisplayName("Test bitmaps loaded from existing appointments and the limit")
+    void testLoadExisting() {
+        // Arrange - written behind the DAOs' back, before the schedule is loaded
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            Appointment appointment = new Appointment(new AppointmentDTO(null, null, "Client", MONDAY, LocalTime.of(8, 0), null));
+            appointment.setDoctor(em.find(Doctor.class, surgeon1));
+            em.persist(appointment);
+            em.getTransaction().commit();
+        }
+
+        // Act
+        List<SlotDTO> slots = dao.freeSlots(surgeon1, MONDAY, MONDAY.plusDays(1), 15, 3);
+
+        // Assert
+        assertEquals(List.of(LocalTime.of(8, 15), LocalTime.of(8, 30), LocalTime.of(8, 45)), times(slots));
+    }
+
+    @Test
+    @DisplayName("Test the first free slot for a speciality is the earliest across its doctors")
+    void testFirstFreeSlot() throws ApiException {
+        // Arrange - the first surgeon is busy 08:00-10:00, the second only at 08:00
+        for (LocalTime time = LocalTime.of(8, 0); time.isBefore(LocalTime.of(10, 0)); time = time.plusMinutes(15)) {
+            book(surgeon1, MONDAY, time);
+        }
+        book(surgeon2, MONDAY, LocalTime.of(8, 0));
+
+        // Act
+        SlotDTO quarterHour = dao.firstFreeSlot(Speciality.SURGERY, MONDAY, MONDAY, 15);
+        SlotDTO twoHours = dao.firstFreeSlot(Speciality.SURGERY, MONDAY, MONDAY, 120);
+        SlotDTO none = dao.firstFreeSlot(Speciality.PEDIATRICS, MONDAY, MONDAY, 15);
+
+        // Assert
+        assertEquals(surgeon2, quarterHour.getDoctorId());
+        assertEquals(LocalTime.of(8, 15), quarterHour.getTime());
+        assertEquals(LocalTime.of(10, 0), twoHours.getTime());
+        assertNull(none);
+    }
+
+    // Waits until a statement in the database is blocked on a lock
+    private static void awaitLockWait() throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            try (EntityManager em = emf.createEntityManager()) {
+                Number waiting = (Number) em.createNativeQuery(
+                        "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'")
+                    .getSingleResult();
+                if (waiting.intValue() > 0) {
+                    return;
+                }
+            }
+            Thread.sleep(10);
+        }
+        fail("No statement waited for a lock");
+    }
+}
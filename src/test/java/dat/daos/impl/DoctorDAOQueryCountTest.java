@@ -0,0 +1,233 @@
+package dat.daos.impl;
+
+import dat.config.HibernateConfig;
+import dat.dtos.DoctorDTO;
+import dat.dtos.DoctorQuery;
+import dat.entities.Appointment;
+import dat.entities.Doctor;
+import dat.enums.Speciality;
+import dat.exceptions.ApiException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements DoctorDAO issues for the queries behind each endpoint
+ * Guards against N+1 selects and against summaries touching the appointments table
+ */
+class DoctorDAOQueryCountTest {
+    private static EntityManagerFactory emf;
+    private static DoctorDAO dao;
+    private static Statistics statistics;
+    private static Doctor testDoctor1;
+    private static Doctor testDoctor2;
+
+    @BeforeAll
+    static void setUpClass() {
+        HibernateConfig.setTest(true);
+        emf = HibernateConfig.getEntityManagerFactoryForTest();
+        dao = DoctorDAO.getInstance(emf);
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Appointment").executeUpdate();
+            em.createQuery("DELETE FROM Doctor").executeUpdate();
+
+            testDoctor1 = createDoctor("Dr. Count One", LocalDate.of(1975, 4, 12), Speciality.SURGERY);
+            testDoctor2 = createDoctor("Dr. Count Two", LocalDate.of(1980, 8, 5), Speciality.SURGERY);
+            em.persist(testDoctor1);
+            em.persist(testDoctor2);
+
+            em.getTransaction().commit();
+        }
+        // Every count starts from cold caches and zeroed statistics
+        emf.getCache().evictAll();
+        dao.evictAll();
+        statistics.clear();
+    }
+
+    private static Doctor createDoctor(String name, LocalDate dateOfBirth, Speciality speciality) {
+        Doctor doctor = new Doctor();
+        doctor.setName(name);
+        doctor.setDateOfBirth(dateOfBirth);
+        doctor.setYearOfGraduation(2000);
+        doctor.setNameOfClinic("Count Clinic");
+        doctor.setSpeciality(speciality);
+        for (int i = 0; i < 3; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setClientName("Client " + i);
+            appointment.setDate(LocalDate.now().plusDays(i + 1));
+            appointment.setTime(LocalTime.of(9 + i, 0));
+            doctor.addAppointment(appointment);
+        }
+        return doctor;
+    }
+
+    @Test
+    @DisplayName("GET /doctors/{id} uses one statement, with or without appointments")
+    void testReadStatementCount() {
+        DoctorDTO summary = dao.read(testDoctor1.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertNull(summary.getAppointments());
+        assertEquals(0, statistics.getCollectionFetchCount());
+
+        statistics.clear();
+        DoctorDTO full = dao.read(testDoctor1.getId(), true);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, full.getAppointments().size());
+    }
+
+    @Test
+    @DisplayName("GET /doctors issues a single statement, whether paged or streamed")
+    void testReadAllStatementCount() {
+        assertEquals(2, dao.readAll().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals(2, dao.readAll(0, 10).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        List<DoctorDTO> streamed = new ArrayList<>();
+        dao.streamAll(streamed::add);
+        assertEquals(2, streamed.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("GET /doctors/query issues a single statement and loads no entities")
+    void testQueryStatementCount() {
+        DoctorQuery query = new DoctorQuery();
+        query.setSpecialities(Set.of(Speciality.SURGERY));
+        query.setClinic("count");
+        query.setFields(List.of("id", "name"));
+        assertEquals(2, dao.query(query).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("GET /doctors?include=appointments does not issue a select per doctor")
+    void testReadAllWithAppointmentsStatementCount() {
+        List<DoctorDTO> page = dao.readAll(0, 10, true);
+        assertEquals(2, statistics.getPrepareStatementCount()); // id page + fetch join
+        assertTrue(page.stream().allMatch(d -> d.getAppointments().size() == 3));
+
+        statistics.clear();
+        List<DoctorDTO> streamed = new ArrayList<>();
+        dao.streamAll(streamed::add, true);
+        assertEquals(2, statistics.getPrepareStatementCount()); // doctors + appointments for the batch
+        assertTrue(streamed.stream().allMatch(d -> d.getAppointments().size() == 3));
+    }
+
+    @Test
+    @DisplayName("GET /doctors/speciality/{speciality} issues a single statement")
+    void testBySpecialityStatementCount() {
+        assertEquals(2, dao.doctorBySpeciality(Speciality.SURGERY).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        List<DoctorDTO> full = dao.doctorBySpeciality(Speciality.SURGERY, true);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(full.stream().allMatch(d -> d.getAppointments().size() == 3));
+    }
+
+    @Test
+    @DisplayName("GET /doctors/birthdate/range issues a single statement")
+    void testByBirthdateRangeStatementCount() {
+        LocalDate from = LocalDate.of(1970, 1, 1);
+        LocalDate to = LocalDate.of(1990, 1, 1);
+
+        assertEquals(2, dao.doctorByBirthdateRange(from, to).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        dao.doctorByBirthdateRange(from, to, true);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Repeated reads are answered from the DTO cache until a write evicts them")
+    void testDtoCacheStatementCount() throws ApiException {
+        dao.read(testDoctor1.getId());
+        dao.doctorBySpeciality(Speciality.SURGERY);
+        statistics.clear();
+
+        dao.read(testDoctor1.getId());
+        dao.doctorBySpeciality(Speciality.SURGERY);
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        DoctorDTO update = new DoctorDTO(null, "Dr. Count Updated", testDoctor1.getDateOfBirth(),
+            2001, "Updated Clinic", Speciality.PEDIATRICS);
+        dao.update(testDoctor1.getId(), update);
+
+        assertEquals("Dr. Count Updated", dao.read(testDoctor1.getId()).getName());
+        assertEquals(1, dao.doctorBySpeciality(Speciality.SURGERY).size());
+    }
+
+    @Test
+    @DisplayName("PUT /doctors/{id} does not load the appointments")
+    void testUpdateStatementCount() throws ApiException {
+        DoctorDTO update = new DoctorDTO(null, "Dr. Count Updated", testDoctor1.getDateOfBirth(),
+            2001, "Updated Clinic", Speciality.SURGERY);
+
+        dao.update(testDoctor1.getId(), update);
+        assertEquals(1, statistics.getPrepareStatementCount()); // update, no select
+        assertEquals(0, statistics.getCollectionFetchCount());
+        assertEquals(1, statistics.getTransactionCount());
+
+        statistics.clear();
+        assertNull(dao.update(999999, update));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("DELETE /doctors/{id} deletes the appointments and the doctor in one transaction, without loading them")
+    void testDeleteStatementCount() throws ApiException {
+        assertTrue(dao.delete(testDoctor1.getId()));
+        assertEquals(2, statistics.getPrepareStatementCount()); // delete appointments + delete doctor
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getTransactionCount());
+
+        statistics.clear();
+        assertFalse(dao.delete(999999));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("POST /doctors/batch sends inserts in JDBC batches")
+    void testCreateAllBatchesInserts() {
+        List<DoctorDTO> doctors = new ArrayList<>();
+        for (int i = 0; i < 2 * HibernateConfig.BATCH_SIZE; i++) {
+            doctors.add(new DoctorDTO(null, "Dr. Batch " + i, LocalDate.of(1980, 1, 1), 2005, "Batch Clinic", Speciality.SURGERY));
+        }
+
+        dao.createAll(doctors);
+
+        assertEquals(2 * HibernateConfig.BATCH_SIZE, statistics.getEntityInsertCount());
+        // Pooled sequence allocation plus one prepared insert per batch, instead of one per doctor
+        assertTrue(statistics.getPrepareStatementCount() <= 6, "statements: " + statistics.getPrepareStatementCount());
+    }
+}
@@ -2,6 +2,7 @@ package dat.daos.impl;
 
 import dat.config.HibernateConfig;
 import dat.dtos.DoctorDTO;
+import dat.dtos.DoctorQuery;
 import dat.entities.Doctor;
 import dat.enums.Speciality;
 import dat.exceptions.ApiException;
@@ -10,7 +11,10 @@ import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -66,6 +70,8 @@ class DoctorDAOTest {
 
             em.getTransaction().commit();
         }
+        // The test data is written behind the DAO's back
+        dao.evictAll();
     }
 
     @AfterEach
@@ -115,6 +121,33 @@ class DoctorDAOTest {
         assertTrue(doctors.stream().anyMatch(d -> d.getName().equals(testDoctor2.getName())));
     }
 
+    @Test
+    @DisplayName("Test reading doctors page by page")
+    void testReadAllPaged() {
+        // Act
+        List<DoctorDTO> firstPage = dao.readAll(0, 1);
+        List<DoctorDTO> secondPage = dao.readAll(firstPage.get(0).getId(), 1);
+        List<DoctorDTO> lastPage = dao.readAll(secondPage.get(0).getId(), 1);
+
+        // Assert
+        assertEquals(testDoctor1.getId(), firstPage.get(0).getId());
+        assertEquals(testDoctor2.getId(), secondPage.get(0).getId());
+        assertTrue(lastPage.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test streaming all doctors")
+    void testStreamAll() {
+        // Act
+        List<DoctorDTO> streamed = new ArrayList<>();
+        dao.streamAll(streamed::add);
+
+        // Assert
+        assertEquals(2, streamed.size());
+        assertEquals(testDoctor1.getName(), streamed.get(0).getName());
+        assertEquals(testDoctor2.getName(), streamed.get(1).getName());
+    }
+
     @Test
     @DisplayName("Test creating a new doctor")
     void testCreate() throws ApiException {
@@ -156,14 +189,113 @@ class DoctorDAOTest {
 
         // Assert
         assertNotNull(updated);
+        assertEquals(testDoctor1.getId(), updated.getId());
         assertEquals(2001, updated.getYearOfGraduation());
         assertEquals("Updated Clinic", updated.getNameOfClinic());
+        assertNull(updateData.getId()); // The caller's DTO is left as it was
 
         // Verify in database
         DoctorDTO found = dao.read(testDoctor1.getId());
         assertEquals("Updated Clinic", found.getNameOfClinic());
     }
 
+    @Test
+    @DisplayName("Test updating non-existent doctor")
+    void testUpdateNonExistent() throws ApiException {
+        // Arrange
+        DoctorDTO updateData = new DoctorDTO(null, "Dr. Nobody", LocalDate.of(1970, 1, 1),
+            1995, "Nowhere Clinic", Speciality.SURGERY);
+
+        // Act
+        DoctorDTO updated = dao.update(999999, updateData);
+
+        // Assert
+        assertNull(updated);
+    }
+
+    @Test
+    @DisplayName("Test deleting a doctor")
+    void testDelete() throws ApiException {
+        // Act
+        boolean deleted = dao.delete(testDoctor1.getId());
+
+        // Assert
+        assertTrue(deleted);
+        assertNull(dao.read(testDoctor1.getId()));
+        assertEquals(1, dao.readAll().size());
+    }
+
+    @Test
+    @DisplayName("Test deleting non-existent doctor")
+    void testDeleteNonExistent() throws ApiException {
+        // Act & Assert
+        assertFalse(dao.delete(999999));
+        assertEquals(2, dao.readAll().size());
+    }
+
+    @Test
+    @DisplayName("Test creating doctors in bulk")
+    void testCreateAll() {
+        // Arrange
+        List<DoctorDTO> doctors = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            doctors.add(new DoctorDTO(null, "Dr. Bulk " + i, LocalDate.of(1980, 1, 1).plusDays(i), 2005, "Bulk Clinic", Speciality.PEDIATRICS));
+        }
+
+        // Act
+        List<DoctorDTO> created = dao.createAll(doctors);
+
+        // Assert
+        assertEquals(120, created.size());
+        assertTrue(created.stream().allMatch(d -> d.getId() != null));
+        assertEquals(122, dao.readAll().size());
+        assertEquals(120, dao.doctorBySpeciality(Speciality.PEDIATRICS).size());
+    }
+
+    @Test
+    @DisplayName("Test updating doctors in bulk")
+    void testUpdateAll() throws ApiException {
+        // Arrange
+        DoctorDTO first = new DoctorDTO(testDoctor1.getId(), "Dr. Test One", LocalDate.of(1975, 4, 12), 2000, "Moved Clinic", Speciality.FAMILY_MEDICINE);
+        DoctorDTO second = new DoctorDTO(testDoctor2.getId(), "Dr. Test Two", LocalDate.of(1980, 8, 5), 2005, "Test Clinic Two", Speciality.PEDIATRICS);
+
+        // Act
+        List<DoctorDTO> updated = dao.updateAll(List.of(first, second));
+
+        // Assert
+        assertEquals(2, updated.size());
+        assertEquals("Moved Clinic", dao.read(testDoctor1.getId()).getNameOfClinic());
+        assertEquals(Speciality.PEDIATRICS, dao.read(testDoctor2.getId()).getSpeciality());
+        assertTrue(dao.doctorBySpeciality(Speciality.SURGERY).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test bulk update with a missing id changes nothing")
+    void testUpdateAllMissingId() {
+        // Arrange
+        DoctorDTO first = new DoctorDTO(testDoctor1.getId(), "Dr. Test One", LocalDate.of(1975, 4, 12), 2000, "Moved Clinic", Speciality.FAMILY_MEDICINE);
+        DoctorDTO missing = new DoctorDTO(999999, "Dr. Missing", LocalDate.of(1980, 1, 1), 2005, "Nowhere", Speciality.SURGERY);
+
+        // Act
+        ApiException exception = assertThrows(ApiException.class, () -> dao.updateAll(List.of(first, missing)));
+
+        // Assert
+        assertEquals(404, exception.getStatusCode());
+        assertEquals("Test Clinic One", dao.read(testDoctor1.getId()).getNameOfClinic());
+    }
+
+    @Test
+    @DisplayName("Test deleting doctors in bulk")
+    void testDeleteAll() {
+        // Act
+        int deleted = dao.deleteAll(List.of(testDoctor1.getId(), testDoctor2.getId(), 999999));
+
+        // Assert
+        assertEquals(2, deleted);
+        assertNull(dao.read(testDoctor1.getId()));
+        assertTrue(dao.readAll().isEmpty());
+    }
+
     @Test
     @DisplayName("Test finding doctors by speciality")
     void testDoctorBySpeciality() {
@@ -197,4 +329,120 @@ class DoctorDAOTest {
         assertTrue(dao.validatePrimaryKey(testDoctor1.getId()));
         assertFalse(dao.validatePrimaryKey(999999));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test searching doctors by name and clinic prefixes")
+    void testSearch() {
+        // Act
+        List<DoctorDTO> byName = dao.search("test tw", 10);
+        List<DoctorDTO> byClinic = dao.search("clin", 10);
+
+        // Assert
+        assertEquals(1, byName.size());
+        assertEquals(testDoctor2.getId(), byName.get(0).getId());
+        assertEquals(2, byClinic.size());
+    }
+
+    @Test
+    @DisplayName("Test the search index follows creates, updates and deletes")
+    void testSearchFollowsWrites() throws ApiException {
+        // Arrange
+        assertTrue(dao.search("hansen", 10).isEmpty());
+
+        // Act & Assert
+        DoctorDTO created = dao.create(new DoctorDTO(null, "Dr. Jens Hansen", LocalDate.of(1970, 1, 1), 1998, "Nørrebro Klinik", Speciality.PEDIATRICS));
+        assertEquals(List.of(created.getId()), dao.search("hansen", 10).stream().map(DoctorDTO::getId).toList());
+
+        created.setName("Dr. Jens Jensen");
+        dao.update(created.getId(), created);
+        assertTrue(dao.search("hansen", 10).isEmpty());
+        assertEquals(1, dao.search("jensen norre", 10).size());
+
+        dao.delete(created.getId());
+        assertTrue(dao.search("jensen", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test searching in the database with SEARCH_BACKEND=postgres")
+    void testSearchInDatabase() {
+        // Arrange
+        System.setProperty("SEARCH_BACKEND", "postgres");
+        try {
+            // Act
+            List<DoctorDTO> doctors = dao.search("two clinic", 10);
+
+            // Assert
+            assertEquals(1, doctors.size());
+            assertEquals(testDoctor2.getId(), doctors.get(0).getId());
+        } finally {
+            System.clearProperty("SEARCH_BACKEND");
+        }
+    }
+
+    @Test
+    @DisplayName("Test searching in the database for accented names and clinics")
+    void testSearchInDatabaseWithAccents() throws ApiException {
+        // Arrange
+        DoctorDTO created = dao.create(new DoctorDTO(null, "Dr. Søren Æbeltoft", LocalDate.of(1970, 1, 1), 1998, "Nørrebro Klinik", Speciality.PEDIATRICS));
+        System.setProperty("SEARCH_BACKEND", "postgres");
+        try {
+            // Act
+            List<DoctorDTO> byClinic = dao.search("Nørrebro", 10);
+            List<DoctorDTO> byName = dao.search("SØREN dr", 10);
+
+            // Assert
+            assertEquals(List.of(created.getId()), byClinic.stream().map(DoctorDTO::getId).toList());
+            assertEquals(List.of(created.getId()), byName.stream().map(DoctorDTO::getId).toList());
+        } finally {
+            System.clearProperty("SEARCH_BACKEND");
+        }
+    }
+
+    @Test
+    @DisplayName("Test a query combining speciality, birthdate, graduation year and clinic filters")
+    void testQueryCombinedFilters() {
+        // Arrange
+        DoctorQuery query = new DoctorQuery();
+        query.setSpecialities(Set.of(Speciality.SURGERY, Speciality.FAMILY_MEDICINE));
+        query.setBornFrom(LocalDate.of(1970, 1, 1));
+        query.setGraduatedFrom(2003);
+        query.setClinic("clinic t");
+
+        // Act
+        List<Map<String, Object>> rows = dao.query(query);
+
+        // Assert
+        assertEquals(1, rows.size());
+        assertEquals(testDoctor2.getId(), rows.get(0).get("id"));
+        assertEquals("1980-08-05", rows.get(0).get("dateOfBirth"));
+        assertEquals(Speciality.SURGERY, rows.get(0).get("speciality"));
+    }
+
+    @Test
+    @DisplayName("Test a query selects only the requested fields, in the requested order")
+    void testQuerySortAndFields() {
+        // Arrange
+        DoctorQuery query = new DoctorQuery();
+        query.setSort("yearOfGraduation");
+        query.setDescending(true);
+        query.setFields(List.of("name", "id"));
+
+        // Act
+        List<Map<String, Object>> rows = dao.query(query);
+
+        // Assert - fields come back in DoctorQuery.FIELDS order
+        assertEquals(List.of(testDoctor2.getId(), testDoctor1.getId()), rows.stream().map(row -> row.get("id")).toList());
+        assertEquals(List.of("id", "name"), List.copyOf(rows.get(0).keySet()));
+    }
+
+    @Test
+    @DisplayName("Test wildcards in the clinic filter are matched literally")
+    void testQueryClinicWildcards() {
+        // Arrange
+        DoctorQuery query = new DoctorQuery();
+        query.setClinic("%");
+
+        // Act & Assert
+        assertTrue(dao.query(query).isEmpty());
+    }
+}
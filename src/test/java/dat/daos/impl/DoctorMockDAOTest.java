@@ -0,0 +1,197 @@
+package dat.daos.impl;
+
+import dat.dtos.DoctorDTO;
+import dat.enums.Speciality;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the in-memory DoctorMockDAO, including parallel writers
+ * The mock keeps static state, so assertions are relative to what each test created
+ */
+class DoctorMockDAOTest {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 500;
+
+    private DoctorMockDAO dao;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        dao = new DoctorMockDAO();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static DoctorDTO doctor(String name, Speciality speciality) {
+        return new DoctorDTO(null, name, LocalDate.of(1980, 1, 1), 2005, "Mock Clinic", speciality);
+    }
+
+    @Test
+    @DisplayName("Test reading a doctor by ID")
+    void testRead() {
+        // Arrange
+        DoctorDTO created = dao.create(doctor("Dr. Read", Speciality.SURGERY));
+
+        // Act
+        DoctorDTO found = dao.read(created.getId());
+
+        // Assert
+        assertNotNull(found);
+        assertEquals("Dr. Read", found.getName());
+        assertTrue(dao.validatePrimaryKey(created.getId()));
+        assertNull(dao.read(Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Test the speciality index follows updates and deletes")
+    void testSpecialityIndex() {
+        // Arrange
+        DoctorDTO created = dao.create(doctor("Dr. Index", Speciality.PEDIATRICS));
+
+        // Act
+        dao.update(created.getId(), doctor("Dr. Index", Speciality.GERIATRICS));
+
+        // Assert
+        assertTrue(dao.doctorBySpeciality(Speciality.PEDIATRICS).stream().noneMatch(d -> d.getId().equals(created.getId())));
+        assertTrue(dao.doctorBySpeciality(Speciality.GERIATRICS).stream().anyMatch(d -> d.getId().equals(created.getId())));
+
+        // Act
+        assertTrue(dao.delete(created.getId()));
+
+        // Assert
+        assertTrue(dao.doctorBySpeciality(Speciality.GERIATRICS).stream().noneMatch(d -> d.getId().equals(created.getId())));
+        assertFalse(dao.delete(created.getId()));
+    }
+
+    @Test
+    @DisplayName("Test birthdate range uses inclusive bounds, sorts by birthdate and honours the limit")
+    void testBirthdateRange() {
+        // Arrange
+        DoctorDTO late = dao.create(new DoctorDTO(null, "Dr. Late", LocalDate.of(1901, 3, 31), 2005, "Mock Clinic", Speciality.SURGERY));
+        DoctorDTO early = dao.create(new DoctorDTO(null, "Dr. Early", LocalDate.of(1901, 3, 1), 2005, "Mock Clinic", Speciality.SURGERY));
+        dao.create(new DoctorDTO(null, "Dr. Outside", LocalDate.of(1901, 4, 1), 2005, "Mock Clinic", Speciality.SURGERY));
+
+        // Act
+        List<DoctorDTO> all = dao.doctorByBirthdateRange(LocalDate.of(1901, 3, 1), LocalDate.of(1901, 3, 31));
+        List<DoctorDTO> limited = dao.doctorByBirthdateRange(LocalDate.of(1901, 3, 1), LocalDate.of(1901, 3, 31), 1);
+
+        // Assert
+        assertEquals(List.of(early.getId(), late.getId()), all.stream().map(DoctorDTO::getId).toList());
+        assertEquals(List.of(early.getId()), limited.stream().map(DoctorDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Test the birthdate index follows updates and deletes")
+    void testBirthdateIndex() {
+        // Arrange
+        LocalDate before = LocalDate.of(1902, 6, 1);
+        LocalDate after = LocalDate.of(1902, 7, 1);
+        DoctorDTO created = dao.create(new DoctorDTO(null, "Dr. Moved", before, 2005, "Mock Clinic", Speciality.SURGERY));
+
+        // Act
+        dao.update(created.getId(), new DoctorDTO(null, "Dr. Moved", after, 2005, "Mock Clinic", Speciality.SURGERY));
+
+        // Assert
+        assertTrue(dao.doctorByBirthdateRange(before, before).isEmpty());
+        assertEquals(1, dao.doctorByBirthdateRange(after, after).size());
+
+        // Act
+        dao.delete(created.getId());
+
+        // Assert
+        assertTrue(dao.doctorByBirthdateRange(after, after).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test paging returns doctors in id order after the given id")
+    void testReadAllPaged() {
+        // Act
+        List<DoctorDTO> page = dao.readAll(2, 3);
+
+        // Assert
+        assertEquals(3, page.size());
+        assertEquals(3, page.get(0).getId());
+        assertEquals(5, page.get(2).getId());
+    }
+
+    @Test
+    @DisplayName("Test parallel creates get unique ids and are all indexed")
+    void testConcurrentCreate() throws Exception {
+        // Arrange
+        int before = dao.readAll().size();
+        int surgeonsBefore = dao.doctorBySpeciality(Speciality.SURGERY).size();
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                List<Integer> ids = new ArrayList<>();
+                for (int i = 0; i < PER_THREAD; i++) {
+                    ids.add(dao.create(doctor("Dr. Parallel " + i, Speciality.SURGERY)).getId());
+                }
+                return ids;
+            }));
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Future<List<Integer>> future : futures) {
+            ids.addAll(future.get(30, TimeUnit.SECONDS));
+        }
+
+        // Assert
+        assertEquals(THREADS * PER_THREAD, ids.size());
+        assertEquals(before + THREADS * PER_THREAD, dao.readAll().size());
+        assertEquals(surgeonsBefore + THREADS * PER_THREAD, dao.doctorBySpeciality(Speciality.SURGERY).size());
+        ids.forEach(id -> assertNotNull(dao.read(id)));
+    }
+
+    @Test
+    @DisplayName("Test parallel updates leave the speciality index consistent")
+    void testConcurrentUpdate() throws Exception {
+        // Arrange
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(dao.create(doctor("Dr. Flip " + i, Speciality.PSYCHIATRY)).getId());
+        }
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act - every thread keeps moving the same doctors between two specialities
+        for (int t = 0; t < THREADS; t++) {
+            Speciality target = t % 2 == 0 ? Speciality.PSYCHIATRY : Speciality.PEDIATRICS;
+            futures.add(executor.submit(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (Integer id : ids) {
+                        dao.update(id, doctor("Dr. Flip", target));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        // Assert - each doctor is listed under exactly the speciality it has
+        for (Integer id : ids) {
+            Speciality speciality = dao.read(id).getSpeciality();
+            assertTrue(dao.doctorBySpeciality(speciality).stream().anyMatch(d -> d.getId().equals(id)));
+            Speciality other = speciality == Speciality.PSYCHIATRY ? Speciality.PEDIATRICS : Speciality.PSYCHIATRY;
+            assertTrue(dao.doctorBySpeciality(other).stream().noneMatch(d -> d.getId().equals(id)));
+        }
+    }
+}
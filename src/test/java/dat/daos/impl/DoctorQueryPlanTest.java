@@ -0,0 +1,103 @@
+package dat.daos.impl;
+
+import dat.config.HibernateConfig;
+import dat.entities.Appointment;
+import dat.entities.Doctor;
+import dat.enums.Speciality;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks with EXPLAIN that the lookups behind the speciality, birthdate and appointment queries can use their indexes
+ * Sequential scans are disabled for the session, so a missing index shows up as a Seq Scan in the plan
+ */
+class DoctorQueryPlanTest {
+    private static EntityManagerFactory emf;
+
+    @BeforeAll
+    static void setUpClass() {
+        HibernateConfig.setTest(true);
+        emf = HibernateConfig.getEntityManagerFactoryForTest();
+
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            for (int i = 0; i < 200; i++) {
+                Doctor doctor = new Doctor();
+                doctor.setName("Dr. Plan " + i);
+                doctor.setDateOfBirth(LocalDate.of(1960, 1, 1).plusDays(i * 50L));
+                doctor.setYearOfGraduation(1990);
+                doctor.setNameOfClinic("Plan Clinic");
+                doctor.setSpeciality(Speciality.values()[i % Speciality.values().length]);
+                Appointment appointment = new Appointment();
+                appointment.setClientName("Client " + i);
+                appointment.setDate(LocalDate.now().plusDays(i % 30));
+                appointment.setTime(LocalTime.of(10, 0));
+                doctor.addAppointment(appointment);
+                em.persist(doctor);
+            }
+            em.getTransaction().commit();
+        }
+    }
+
+    @AfterAll
+    static void tearDownClass() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String explain(String sql) {
+        try (EntityManager em = emf.createEntityManager()) {
+            em.getTransaction().begin();
+            em.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+            List<String> plan = em.createNativeQuery("EXPLAIN " + sql).getResultList();
+            em.getTransaction().rollback();
+            return String.join("\n", plan);
+        }
+    }
+
+    @Test
+    @DisplayName("Test speciality lookups use the speciality index")
+    void testSpecialityPlan() {
+        String plan = explain("SELECT * FROM doctors WHERE speciality = 'SURGERY'");
+        assertTrue(plan.contains("idx_doctors_speciality_date_of_birth"), plan);
+    }
+
+    @Test
+    @DisplayName("Test birthdate range lookups use the birthdate index")
+    void testBirthdateRangePlan() {
+        String plan = explain("SELECT * FROM doctors WHERE dateOfBirth BETWEEN '1970-01-01' AND '1975-12-31'");
+        assertTrue(plan.contains("idx_doctors_date_of_birth"), plan);
+    }
+
+    @Test
+    @DisplayName("Test speciality and birthdate filters use the composite index")
+    void testSpecialityAndBirthdatePlan() {
+        String plan = explain("SELECT * FROM doctors WHERE speciality = 'SURGERY' AND dateOfBirth >= '1970-01-01'");
+        assertTrue(plan.contains("idx_doctors_speciality_date_of_birth"), plan);
+    }
+
+    @Test
+    @DisplayName("Test loading a doctor's appointments uses the appointment index")
+    void testAppointmentsPlan() {
+        String plan = explain("SELECT * FROM appointments WHERE doctor_id = 1 AND date >= CURRENT_DATE");
+        assertTrue(plan.contains("uk_appointments_doctor_id_date_time"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    @DisplayName("Test a doctor's schedule is read in order from the appointment index without a sort")
+    void testSchedulePlan() {
+        String plan = explain("SELECT * FROM appointments WHERE doctor_id = 1 AND date BETWEEN '2024-01-01' AND '2024-12-31' ORDER BY date, time LIMIT 50");
+        assertTrue(plan.contains("uk_appointments_doctor_id_date_time"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+}
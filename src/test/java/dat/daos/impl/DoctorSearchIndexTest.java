@@ -0,0 +1,104 @@
+package dat.daos.impl;
+
+import dat.dtos.DoctorDTO;
+import dat.enums.Speciality;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the in-memory type-ahead index, without a database
+ */
+class DoctorSearchIndexTest {
+    private DoctorSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DoctorSearchIndex();
+        index.load(consumer -> {
+            consumer.accept(doctor(1, "Dr. Anna Hansen", "City Clinic"));
+            consumer.accept(doctor(2, "Dr. Hans Berg", "Hansen Medical"));
+            consumer.accept(doctor(3, "Dr. Hanne Søgaard-Østergaard", "North Clinic"));
+            consumer.accept(doctor(4, "Dr. José Hans Álvarez", "City Clinic"));
+        });
+    }
+
+    private static DoctorDTO doctor(int id, String name, String clinic) {
+        return new DoctorDTO(id, name, LocalDate.of(1970, 1, 1), 2000, clinic, Speciality.SURGERY);
+    }
+
+    private List<Integer> ids(String query) {
+        return index.search(query, 10).stream().map(DoctorDTO::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Test words are lowercased and split, and accents are removed unless kept for the database")
+    void testTokenize() {
+        // Act & Assert
+        assertEquals(List.of("dr", "jose", "alvarez"), DoctorSearchIndex.tokenize("Dr. José Álvarez"));
+        assertEquals(List.of("sogaard", "ostergaard", "aero"), DoctorSearchIndex.tokenize("Søgaard-Østergaard Ærø"));
+        assertEquals(List.of(), DoctorSearchIndex.tokenize("  - "));
+        assertEquals(List.of("søgaard", "østergaard", "ærø"), DoctorSearchIndex.lowercaseWords("Søgaard-Østergaard Ærø"));
+    }
+
+    @Test
+    @DisplayName("Test exact name words rank above name prefixes, which rank above clinic matches")
+    void testRanking() {
+        // Act
+        List<Integer> ids = ids("hans");
+
+        // Assert - Berg and Álvarez have the exact word, the shorter name first, Hanne is no match
+        assertEquals(List.of(2, 4, 1), ids);
+    }
+
+    @Test
+    @DisplayName("Test every query word must match, in any order and without accents")
+    void testAllWordsMatch() {
+        // Act & Assert
+        assertEquals(List.of(4), ids("alvarez jose"));
+        assertEquals(List.of(1), ids("city hansen"));
+        assertEquals(List.of(3), ids("søg øst"));
+        assertTrue(ids("hans zzz").isEmpty());
+        assertTrue(ids("").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test the limit keeps the best ranked doctors")
+    void testLimit() {
+        // Act
+        List<DoctorDTO> doctors = index.search("dr", 2);
+
+        // Assert - equal scores, shorter names first
+        assertEquals(List.of(2, 1), doctors.stream().map(DoctorDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Test updates replace the old words and removes drop the doctor")
+    void testPutAndRemove() {
+        // Act
+        index.put(doctor(2, "Dr. Ida Berg", "South Clinic"));
+        index.remove(1);
+
+        // Assert
+        assertEquals(List.of(4), ids("hans"));
+        assertEquals(List.of(2), ids("ida"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Test writes before the load are left to the load")
+    void testWritesBeforeLoad() {
+        // Arrange
+        DoctorSearchIndex empty = new DoctorSearchIndex();
+
+        // Act
+        empty.put(doctor(1, "Dr. Anna Hansen", "City Clinic"));
+
+        // Assert
+        assertFalse(empty.isLoaded());
+        assertEquals(0, empty.size());
+    }
+}
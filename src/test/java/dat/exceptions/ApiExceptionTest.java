@@ -0,0 +1,53 @@
+package dat.exceptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the stackless ApiException and its pre-serialized Message body
+ */
+class ApiExceptionTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Test toJson writes the same JSON as Jackson does for the Message")
+    void testToJsonMatchesJackson() throws Exception {
+        // Arrange
+        String text = "Doctor \"Hansen\" not found in C:\\clinic\n\ttab \u0001 Nørrebro";
+        ApiException exception = new ApiException(404, text);
+        Message message = new Message(404, text);
+
+        // Act
+        String json = exception.toJson();
+        String jackson = objectMapper.writeValueAsString(message);
+
+        // Assert
+        JsonNode node = objectMapper.readTree(json);
+        assertEquals(404, node.get("status").asInt());
+        assertEquals(text, node.get("message").asText());
+        assertTrue(node.get("timestamp").asText().matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}"));
+        String timestamp = "\"timestamp\":\"";
+        assertEquals(jackson.substring(0, jackson.indexOf(timestamp)), json.substring(0, json.indexOf(timestamp)));
+    }
+
+    @Test
+    @DisplayName("Test ApiExceptions carry no stack trace and can be thrown again")
+    void testStackless() {
+        // Arrange
+        ApiException shared = new ApiException(400, "ID must be a positive number");
+
+        // Act
+        ApiException first = assertThrows(ApiException.class, () -> { throw shared; });
+        ApiException second = assertThrows(ApiException.class, () -> { throw shared; });
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertTrue(first.isClientError());
+        assertTrue(first.toJson().startsWith("{\"status\":400,\"message\":\"ID must be a positive number\",\"timestamp\":\""));
+    }
+}
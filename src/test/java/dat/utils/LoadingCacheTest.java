@@ -0,0 +1,145 @@
+package dat.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the bounded DTO cache
+ */
+class LoadingCacheTest {
+
+    @Test
+    @DisplayName("Test concurrent misses for the same key load only once")
+    void testStampedeGuard() throws Exception {
+        // Arrange
+        LoadingCache<Integer, String> cache = new LoadingCache<>("test", 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> cache.get(1, key -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                try {
+                    releaseLoader.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "doctor-" + key;
+            })));
+        }
+        loaderStarted.await();
+        Thread.sleep(100); // Let the other callers pile up behind the first load
+        releaseLoader.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("doctor-1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test least recently used entry is evicted when full")
+    void testLruEviction() {
+        // Arrange
+        LoadingCache<Integer, String> cache = new LoadingCache<>("test", 2, Duration.ofMinutes(1));
+        cache.get(1, key -> "one");
+        cache.get(2, key -> "two");
+        cache.get(1, key -> "one"); // 2 is now least recently used
+
+        // Act
+        cache.get(3, key -> "three");
+
+        // Assert
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("one", cache.get(1, key -> "reloaded"));
+        assertEquals("reloaded", cache.get(2, key -> "reloaded"));
+    }
+
+    @Test
+    @DisplayName("Test entries expire after their time to live")
+    void testTtl() throws InterruptedException {
+        // Arrange
+        LoadingCache<Integer, String> cache = new LoadingCache<>("test", 10, Duration.ofMillis(20));
+        cache.get(1, key -> "first");
+
+        // Act
+        Thread.sleep(50);
+
+        // Assert
+        assertEquals("second", cache.get(1, key -> "second"));
+    }
+
+    @Test
+    @DisplayName("Test a load overlapping an invalidation is not cached")
+    void testInvalidationDuringLoad() {
+        // Arrange
+        LoadingCache<Integer, String> cache = new LoadingCache<>("test", 10, Duration.ofMinutes(1));
+
+        // Act
+        String stale = cache.get(1, key -> {
+            cache.invalidate(key); // A write commits while the read is in progress
+            return "stale";
+        });
+
+        // Assert
+        assertEquals("stale", stale);
+        assertEquals("fresh", cache.get(1, key -> "fresh"));
+    }
+
+    @Test
+    @DisplayName("Test invalidating one key does not discard loads of other keys")
+    void testInvalidationOfOtherKeyDuringLoad() {
+        // Arrange
+        LoadingCache<Integer, String> cache = new LoadingCache<>("test", 10, Duration.ofMinutes(1));
+
+        // Act
+        cache.get(1, key -> {
+            cache.invalidate(2); // Another doctor is written while this one is read
+            return "one";
+        });
+
+        // Assert
+        assertEquals("one", cache.get(1, key -> "reloaded"));
+        assertEquals(1, cache.getPutCount());
+    }
+
+    @Test
+    @DisplayName("Test a load overlapping invalidateAll is not cached")
+    void testInvalidateAllDuringLoad() {
+        // Arrange
+        LoadingCache<Integer, String> cache = new LoadingCache<>("test", 10, Duration.ofMinutes(1));
+
+        // Act
+        cache.get(1, key -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        // Assert
+        assertEquals("fresh", cache.get(1, key -> "fresh"));
+    }
+
+    @Test
+    @DisplayName("Test null results are not cached")
+    void testNullNotCached() {
+        LoadingCache<Integer, String> cache = new LoadingCache<>("test", 10, Duration.ofMinutes(1));
+
+        assertNull(cache.get(1, key -> null));
+        assertEquals("found", cache.get(1, key -> "found"));
+    }
+}
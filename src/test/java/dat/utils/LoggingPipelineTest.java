@@ -0,0 +1,226 @@
+package dat.utils;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the rate limiting turbo filter, the async appender and the SQL loggers of logback.xml,
+ * each in a logger context of its own
+ */
+class LoggingPipelineTest {
+
+    @Test
+    @DisplayName("Test repeated messages are limited per format, other levels and loggers are not")
+    void testRateLimit() {
+        // Arrange
+        LoggerContext context = newContext();
+        RateLimitingTurboFilter filter = new RateLimitingTurboFilter();
+        filter.setContext(context);
+        filter.setMaxPerInterval(5);
+        filter.setIntervalMillis(60_000);
+        filter.setLevel("INFO");
+        filter.setLoggerPrefix("dat.");
+        filter.start();
+        context.addTurboFilter(filter);
+        ListAppender<ILoggingEvent> events = new ListAppender<>();
+        events.setContext(context);
+        events.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(events);
+        Logger controller = context.getLogger("dat.controllers.Test");
+        Logger library = context.getLogger("org.library.Test");
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            controller.info("Doctor not found with id: {}", i);
+            controller.error("Database failed: {}", i);
+            library.info("Doctor not found with id: {}", i);
+        }
+        controller.info("Invalid ID format: {}", "x");
+
+        // Assert
+        assertEquals(5, count(events.list, "dat.controllers.Test", Level.INFO, "Doctor not found with id: {}"));
+        assertEquals(100, count(events.list, "dat.controllers.Test", Level.ERROR, "Database failed: {}"));
+        assertEquals(100, count(events.list, "org.library.Test", Level.INFO, "Doctor not found with id: {}"));
+        assertEquals(1, count(events.list, "dat.controllers.Test", Level.INFO, "Invalid ID format: {}"));
+        assertEquals(95, filter.getDenied());
+    }
+
+    @Test
+    @DisplayName("Test the drops of a burst that stops are reported by the next event of another logger")
+    void testRateLimitReportsEndedBurst() throws Exception {
+        // Arrange
+        LoggerContext context = newContext();
+        RateLimitingTurboFilter filter = new RateLimitingTurboFilter();
+        filter.setContext(context);
+        filter.setMaxPerInterval(5);
+        filter.setIntervalMillis(50);
+        filter.setLevel("INFO");
+        filter.setLoggerPrefix("dat.");
+        filter.start();
+        context.addTurboFilter(filter);
+        ListAppender<ILoggingEvent> events = new ListAppender<>();
+        events.setContext(context);
+        events.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(events);
+        Logger controller = context.getLogger("dat.controllers.Test");
+        for (int i = 0; i < 20; i++) {
+            controller.info("Doctor not found with id: {}", i);
+        }
+
+        // Act - the burst is over, the next event comes from another logger
+        Thread.sleep(100);
+        context.getLogger("org.library.Test").info("Unrelated");
+
+        // Assert
+        List<ILoggingEvent> reports = events.list.stream()
+            .filter(event -> event.getLoggerName().equals(RateLimitingTurboFilter.class.getName()))
+            .toList();
+        assertEquals(1, reports.size());
+        assertEquals(Level.WARN, reports.get(0).getLevel());
+        assertEquals("Dropped 15 repeated log events from dat.controllers.Test: \"Doctor not found with id: {}\"",
+            reports.get(0).getFormattedMessage());
+    }
+
+    @Test
+    @DisplayName("Test a full queue drops events below ERROR and keeps errors")
+    void testDiscardBelowError() throws Exception {
+        // Arrange
+        LoggerContext context = newContext();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<ILoggingEvent> written = new CopyOnWriteArrayList<>();
+        AppenderBase<ILoggingEvent> slowAppender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(event);
+            }
+        };
+        slowAppender.setContext(context);
+        slowAppender.start();
+        ErrorKeepingAsyncAppender async = new ErrorKeepingAsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(10);
+        async.setDiscardingThreshold(2);
+        async.addAppender(slowAppender);
+        async.start();
+        Logger logger = context.getLogger("dat.controllers.Test");
+        logger.setAdditive(false);
+        logger.addAppender(async);
+
+        // Act
+        logger.info("first");
+        blocked.await();
+        for (int i = 0; i < 20; i++) {
+            logger.warn("warning {}", i);
+        }
+        logger.error("error");
+        release.countDown();
+        async.stop();
+
+        // Assert
+        assertEquals(11, async.getDiscarded());
+        assertEquals(11, written.size());
+        assertEquals(Level.ERROR, written.get(written.size() - 1).getLevel());
+    }
+
+    @Test
+    @DisplayName("Test SQL_LOG_BINDS logs the binds of every statement unsampled, while slow queries are sampled")
+    void testSqlBindsUnsampled() throws Exception {
+        // Arrange
+        LoggerContext context = newContext();
+        context.putProperty("SQL_LOG_BINDS", "trace");
+        context.putProperty("SQL_LOG_SAMPLE_RATE", "10");
+        configure(context);
+        Logger binds = context.getLogger("org.hibernate.orm.jdbc.bind");
+        Logger slow = context.getLogger("org.hibernate.SQL_SLOW");
+        AsyncAppender bindAppender = (AsyncAppender) binds.getAppender("ASYNC_SQL_BINDS");
+        AsyncAppender slowAppender = (AsyncAppender) slow.getAppender("ASYNC_SQL");
+
+        // Act
+        int bindsPassed = 0;
+        int slowPassed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (bindAppender.getFilterChainDecision(event(binds, Level.TRACE, "binding parameter (1:INTEGER) <- [{}]", i)) != FilterReply.DENY) {
+                bindsPassed++;
+            }
+            if (slowAppender.getFilterChainDecision(event(slow, Level.INFO, "Slow query took {} milliseconds", 500)) != FilterReply.DENY) {
+                slowPassed++;
+            }
+        }
+
+        // Assert
+        assertTrue(binds.isTraceEnabled());
+        assertEquals(100, bindsPassed);
+        assertEquals(10, slowPassed);
+        context.stop();
+    }
+
+    @Test
+    @DisplayName("Test bind parameters are not logged unless SQL_LOG_BINDS is set")
+    void testSqlBindsOffByDefault() throws Exception {
+        // Arrange
+        LoggerContext context = newContext();
+
+        // Act
+        configure(context);
+
+        // Assert
+        assertFalse(context.getLogger("org.hibernate.orm.jdbc.bind").isTraceEnabled());
+        context.stop();
+    }
+
+    // Our logback.xml, the Javalin bundle has one on the classpath as well
+    private static void configure(LoggerContext context) throws Exception {
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        for (URL url : Collections.list(LoggingPipelineTest.class.getClassLoader().getResources("logback.xml"))) {
+            if ("file".equals(url.getProtocol())) {
+                configurator.doConfigure(url);
+                return;
+            }
+        }
+        fail("logback.xml not found");
+    }
+
+    private static ILoggingEvent event(Logger logger, Level level, String format, Object argument) {
+        return new LoggingEvent(Logger.FQCN, logger, level, format, null, new Object[]{argument});
+    }
+
+    private static LoggerContext newContext() {
+        LoggerContext context = new LoggerContext();
+        // Normally set by the SLF4J binding, async appenders copy the MDC of every event
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        return context;
+    }
+
+    private static long count(List<ILoggingEvent> events, String logger, Level level, String format) {
+        return events.stream()
+            .filter(event -> event.getLoggerName().equals(logger) && event.getLevel() == level && event.getMessage().equals(format))
+            .count();
+    }
+}
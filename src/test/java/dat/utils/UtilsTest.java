@@ -0,0 +1,54 @@
+package dat.utils;
+
+import dat.dtos.DoctorDTO;
+import dat.enums.Speciality;
+import dat.exceptions.ApiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the shared ObjectMapper and request parameter helpers
+ */
+class UtilsTest {
+
+    @Test
+    @DisplayName("Test the shared mapper round-trips a doctor and ignores unknown properties")
+    void testObjectMapper() throws Exception {
+        // Arrange
+        DoctorDTO doctor = new DoctorDTO(7, "Dr. Jensen", LocalDate.of(1970, 2, 3), 1995, "Vesterbro Klinik", Speciality.SURGERY);
+
+        // Act
+        String json = Utils.getObjectMapper().writeValueAsString(doctor);
+        DoctorDTO read = Utils.getObjectMapper().readValue(json.replace("}", ",\"unknown\":1}"), DoctorDTO.class);
+
+        // Assert
+        assertSame(Utils.getObjectMapper(), Utils.getObjectMapper());
+        assertEquals("{\"id\":7,\"name\":\"Dr. Jensen\",\"dateOfBirth\":\"1970-02-03\",\"yearOfGraduation\":1995,"
+            + "\"nameOfClinic\":\"Vesterbro Klinik\",\"speciality\":\"SURGERY\"}", json);
+        assertEquals(LocalDate.of(1970, 2, 3), read.getDateOfBirth());
+        assertEquals(Speciality.SURGERY, read.getSpeciality());
+    }
+
+    @Test
+    @DisplayName("Test parseId accepts what Integer.parseInt accepts and rejects the rest with a 400")
+    void testParseId() throws ApiException {
+        // Act & Assert
+        assertEquals(42, Utils.parseId("42"));
+        assertEquals(42, Utils.parseId("+42"));
+        assertEquals(7, Utils.parseId("0007"));
+        assertEquals(Integer.MAX_VALUE, Utils.parseId("2147483647"));
+        for (String invalid : new String[]{"", "-", "abc", "4x2", "2147483648", "99999999999999999999", "-99999999999"}) {
+            ApiException e = assertThrows(ApiException.class, () -> Utils.parseId(invalid));
+            assertEquals(400, e.getStatusCode());
+            assertEquals("Invalid ID format: " + invalid, e.getMessage());
+        }
+        for (String notPositive : new String[]{"0", "-0", "-5", "-2147483648"}) {
+            ApiException e = assertThrows(ApiException.class, () -> Utils.parseId(notPositive));
+            assertEquals("ID must be a positive number", e.getMessage());
+        }
+    }
+}